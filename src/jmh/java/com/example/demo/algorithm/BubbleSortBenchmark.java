@@ -0,0 +1,46 @@
+package com.example.demo.algorithm;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// 冒泡排序是 O(n^2)，规模上限单独控制在 10 万以内
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BubbleSortBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    @Param({"RANDOM", "SORTED", "REVERSED", "DUPLICATES"})
+    private InputDistribution distribution;
+
+    private final SortEngine sortEngine = new SortEngine();
+
+    private int[] source;
+
+    private int[] work;
+
+    @Setup
+    public void setUp() {
+        source = distribution.generate(size);
+        work = new int[size];
+    }
+
+    @Benchmark
+    public int[] bubbleSort() {
+        System.arraycopy(source, 0, work, 0, size);
+        sortEngine.bubbleSort(work);
+        return work;
+    }
+}
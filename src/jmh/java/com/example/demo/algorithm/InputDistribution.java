@@ -0,0 +1,54 @@
+package com.example.demo.algorithm;
+
+import java.util.Random;
+
+// 基准测试的输入分布，固定随机种子保证每次运行数据一致
+public enum InputDistribution {
+
+    RANDOM {
+        @Override
+        void fill(int[] array, Random random) {
+            for (int i = 0; i < array.length; i++) {
+                array[i] = random.nextInt();
+            }
+        }
+    },
+
+    SORTED {
+        @Override
+        void fill(int[] array, Random random) {
+            for (int i = 0; i < array.length; i++) {
+                array[i] = i;
+            }
+        }
+    },
+
+    REVERSED {
+        @Override
+        void fill(int[] array, Random random) {
+            for (int i = 0; i < array.length; i++) {
+                array[i] = array.length - i;
+            }
+        }
+    },
+
+    // 只有少量不同取值的大量重复元素
+    DUPLICATES {
+        @Override
+        void fill(int[] array, Random random) {
+            for (int i = 0; i < array.length; i++) {
+                array[i] = random.nextInt(100);
+            }
+        }
+    };
+
+    static final long SEED = 42L;
+
+    abstract void fill(int[] array, Random random);
+
+    public int[] generate(int size) {
+        int[] array = new int[size];
+        fill(array, new Random(SEED));
+        return array;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.algorithm;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PrimeBenchmark {
+
+    @Param({"10", "1000", "100000", "10000000", "100000000"})
+    private int limit;
+
+    private final PrimeEngine primeEngine = new PrimeEngine();
+
+    @Benchmark
+    public int[] primesUpTo() {
+        return primeEngine.primesUpTo(limit);
+    }
+
+    @Benchmark
+    public long countPrimes() {
+        return primeEngine.countPrimes(2, limit);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.algorithm;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// binarySearch 每次调用都要拷贝并排序；lowerBound 针对预排序数组，只有 O(log n) 次比较
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark {
+
+    @Param({"10", "1000", "100000", "10000000"})
+    private int size;
+
+    @Param({"RANDOM", "SORTED", "REVERSED", "DUPLICATES"})
+    private InputDistribution distribution;
+
+    private final SearchEngine searchEngine = new SearchEngine();
+
+    private int[] source;
+
+    private int target;
+
+    private SortedIntArray heapArray;
+
+    private SortedIntArray offHeapArray;
+
+    @Setup
+    public void setUp() {
+        source = distribution.generate(size);
+        target = source[new Random(InputDistribution.SEED).nextInt(size)];
+        int[] sorted = source.clone();
+        Arrays.sort(sorted);
+        heapArray = SortedIntArray.onHeap(sorted);
+        offHeapArray = SortedIntArray.offHeap(sorted);
+    }
+
+    @Benchmark
+    public int binarySearch() {
+        return searchEngine.binarySearch(source, target);
+    }
+
+    @Benchmark
+    public int lowerBoundOnHeap() {
+        return searchEngine.lowerBound(heapArray, target);
+    }
+
+    @Benchmark
+    public int lowerBoundOffHeap() {
+        return searchEngine.lowerBound(offHeapArray, target);
+    }
+}
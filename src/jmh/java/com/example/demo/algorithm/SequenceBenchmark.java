@@ -0,0 +1,46 @@
+package com.example.demo.algorithm;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.List;
+
+// 单项与阶乘直接调用未缓存的实现，避免测到缓存命中
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SequenceBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int length;
+
+    @Param({"10", "1000", "100000", "10000000"})
+    private int n;
+
+    private final SequenceEngine sequenceEngine = new SequenceEngine();
+
+    @Benchmark
+    public List<BigInteger> fibonacci() {
+        return sequenceEngine.fibonacci(length);
+    }
+
+    @Benchmark
+    public BigInteger fibonacciTerm() {
+        return SequenceEngine.fastDoublingFibonacci(n);
+    }
+
+    @Benchmark
+    public BigInteger factorial() {
+        return SequenceEngine.productTreeFactorial(Math.min(n, 1_000_000));
+    }
+}
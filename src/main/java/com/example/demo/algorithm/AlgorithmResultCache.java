@@ -0,0 +1,334 @@
+package com.example.demo.algorithm;
+
+import com.example.demo.config.AlgorithmProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Data;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// 确定性算法的结果缓存。素数表和斐波那契数列只保留一份最长前缀：较小的请求直接截取，
+// 较大的请求在已有前缀之后继续计算（素数区间与前缀不相接时直接筛选该区间，不扩展前缀）；阶乘按 n 缓存，未命中时从不超过 n 的最大已缓存阶乘继续连乘。
+// 总大小受 max-size 限制，阶乘占一半，素数表和斐波那契前缀各占四分之一，超出预算的请求直接计算不缓存。
+@Component
+public class AlgorithmResultCache {
+
+    private final PrimeEngine primeEngine;
+
+    private final SequenceEngine sequenceEngine;
+
+    private final boolean enabled;
+
+    private final long primeBudget;
+
+    private final long fibonacciBudget;
+
+    private final long factorialBudget;
+
+    private final Cache<Integer, BigInteger> factorials;
+
+    private final Counters primeCounters = new Counters();
+
+    private final Counters fibonacciCounters = new Counters();
+
+    private final Counters factorialCounters = new Counters();
+
+    // 前缀只整体替换，读取无需加锁；扩展时加锁，避免并发请求重复计算同一段
+    private volatile PrimeTable primeTable = new PrimeTable(1, new int[0]);
+
+    private volatile FibonacciPrefix fibonacciPrefix = new FibonacciPrefix(List.of(), 0);
+
+    private final Object primeLock = new Object();
+
+    private final Object fibonacciLock = new Object();
+
+    public AlgorithmResultCache(PrimeEngine primeEngine, SequenceEngine sequenceEngine, AlgorithmProperties properties) {
+        AlgorithmProperties.ResultCache config = properties.getResultCache();
+        this.primeEngine = primeEngine;
+        this.sequenceEngine = sequenceEngine;
+        this.enabled = config.isEnabled();
+        long maxBytes = config.getMaxSize().toBytes();
+        this.primeBudget = maxBytes / 4;
+        this.fibonacciBudget = maxBytes / 4;
+        this.factorialBudget = maxBytes - primeBudget - fibonacciBudget;
+        // 权重以 KB 计，避免大结果的字节数超出 int
+        this.factorials = Caffeine.newBuilder()
+                .maximumWeight(Math.max(1, factorialBudget >> 10))
+                .weigher((Integer n, BigInteger value) -> (int) Math.min(Integer.MAX_VALUE, (bigIntegerBytes(value) >> 10) + 1))
+                .build();
+    }
+
+    public int[] primesUpTo(int limit) {
+        return primesInRange(2, limit);
+    }
+
+    // 返回 [from, to] 闭区间内的素数
+    public int[] primesInRange(int from, int to) {
+        if (to < 2 || from > to) {
+            return new int[0];
+        }
+        PrimeTable table = primeTableCovering(from, to);
+        return table != null ? table.slice(from, to) : primeEngine.primesInRange(from, to);
+    }
+
+    // 只计数时不扩展素数表：筛选计数本身不占内存
+    public long countPrimes(int from, int to) {
+        if (to < 2 || from > to) {
+            return 0;
+        }
+        PrimeTable table = primeTable;
+        if (!enabled || table.limit < to) {
+            primeCounters.misses.increment();
+            return primeEngine.countPrimes(from, to);
+        }
+        primeCounters.hits.increment();
+        return table.count(from, to);
+    }
+
+    // 斐波那契数列前 n 项，返回只读列表
+    public List<BigInteger> fibonacci(int n) {
+        FibonacciPrefix prefix = fibonacciPrefixCovering(n);
+        return prefix != null ? prefix.terms.subList(0, n) : sequenceEngine.fibonacci(n);
+    }
+
+    // 前缀已覆盖时直接取，否则交给引擎的快速倍增
+    public BigInteger fibonacciTerm(int n) {
+        FibonacciPrefix prefix = fibonacciPrefix;
+        if (enabled && n < prefix.terms.size()) {
+            fibonacciCounters.hits.increment();
+            return prefix.terms.get(n);
+        }
+        fibonacciCounters.misses.increment();
+        return sequenceEngine.fibonacciTerm(n);
+    }
+
+    public BigInteger factorial(int n) {
+        if (!enabled) {
+            return sequenceEngine.factorial(n);
+        }
+        BigInteger cached = factorials.getIfPresent(n);
+        if (cached != null) {
+            factorialCounters.hits.increment();
+            return cached;
+        }
+        // 缓存条目按字节数限量，个数不多，线性查找不超过 n 的最大项
+        int floorN = -1;
+        BigInteger floorValue = null;
+        for (Map.Entry<Integer, BigInteger> entry : factorials.asMap().entrySet()) {
+            if (entry.getKey() < n && entry.getKey() > floorN) {
+                floorN = entry.getKey();
+                floorValue = entry.getValue();
+            }
+        }
+        BigInteger result;
+        if (floorValue != null) {
+            factorialCounters.extensions.increment();
+            result = floorValue.multiply(SequenceEngine.rangeProduct(floorN + 1, n));
+        } else {
+            factorialCounters.misses.increment();
+            result = sequenceEngine.factorial(n);
+        }
+        factorials.put(n, result);
+        return result;
+    }
+
+    public void invalidateAll() {
+        synchronized (primeLock) {
+            primeTable = new PrimeTable(1, new int[0]);
+        }
+        synchronized (fibonacciLock) {
+            fibonacciPrefix = new FibonacciPrefix(List.of(), 0);
+        }
+        factorials.invalidateAll();
+    }
+
+    public ResultCacheStats stats() {
+        PrimeTable table = primeTable;
+        FibonacciPrefix prefix = fibonacciPrefix;
+        long factorialBytes = 0;
+        for (BigInteger value : factorials.asMap().values()) {
+            factorialBytes += bigIntegerBytes(value);
+        }
+        return new ResultCacheStats(enabled,
+                primeCounters.metrics(table.limit, 16 + 4L * table.primes.length, primeBudget),
+                fibonacciCounters.metrics(prefix.terms.size(), prefix.bytes, fibonacciBudget),
+                factorialCounters.metrics(factorials.estimatedSize(), factorialBytes, factorialBudget));
+    }
+
+    // 返回覆盖 to 的素数表；超出预算时返回 null，由调用方直接计算。
+    // 只有与已缓存前缀相接的请求才扩展前缀，远在前缀之后的区间由调用方分段筛选该区间本身
+    private PrimeTable primeTableCovering(int from, int to) {
+        PrimeTable table = primeTable;
+        if (enabled && table.limit >= to) {
+            primeCounters.hits.increment();
+            return table;
+        }
+        if (!enabled || from > table.limit + 1 || estimatedPrimeBytes(to) > primeBudget) {
+            primeCounters.misses.increment();
+            return null;
+        }
+        synchronized (primeLock) {
+            table = primeTable;
+            if (table.limit >= to) {
+                primeCounters.hits.increment();
+                return table;
+            }
+            // 至少扩展一倍，逐步增大的请求不必每次都重新扩展
+            long grown = Math.min(Integer.MAX_VALUE, Math.max(to, 2L * table.limit));
+            int limit = estimatedPrimeBytes(grown) <= primeBudget ? (int) grown : to;
+            int[] more = primeEngine.primesInRange(table.limit + 1, limit);
+            int[] primes = Arrays.copyOf(table.primes, table.primes.length + more.length);
+            System.arraycopy(more, 0, primes, table.primes.length, more.length);
+            (table.primes.length == 0 ? primeCounters.misses : primeCounters.extensions).increment();
+            primeTable = new PrimeTable(limit, primes);
+            return primeTable;
+        }
+    }
+
+    private FibonacciPrefix fibonacciPrefixCovering(int n) {
+        FibonacciPrefix prefix = fibonacciPrefix;
+        if (enabled && prefix.terms.size() >= n) {
+            fibonacciCounters.hits.increment();
+            return prefix;
+        }
+        if (!enabled || estimatedFibonacciBytes(n) > fibonacciBudget) {
+            fibonacciCounters.misses.increment();
+            return null;
+        }
+        synchronized (fibonacciLock) {
+            prefix = fibonacciPrefix;
+            if (prefix.terms.size() >= n) {
+                fibonacciCounters.hits.increment();
+                return prefix;
+            }
+            int size = prefix.terms.size();
+            int grown = (int) Math.min(Integer.MAX_VALUE, Math.max(n, 2L * size));
+            int length = estimatedFibonacciBytes(grown) <= fibonacciBudget ? grown : n;
+            List<BigInteger> terms = new ArrayList<>(length);
+            terms.addAll(prefix.terms);
+            long bytes = prefix.bytes;
+            // 从已有前缀的最后两项继续递推
+            BigInteger previous = size >= 2 ? prefix.terms.get(size - 2).add(prefix.terms.get(size - 1)) : BigInteger.valueOf(size);
+            BigInteger current = size >= 2 ? previous.add(prefix.terms.get(size - 1)) : BigInteger.ONE;
+            for (int i = size; i < length; i++) {
+                terms.add(previous);
+                bytes += bigIntegerBytes(previous);
+                BigInteger next = previous.add(current);
+                previous = current;
+                current = next;
+            }
+            (size == 0 ? fibonacciCounters.misses : fibonacciCounters.extensions).increment();
+            fibonacciPrefix = new FibonacciPrefix(Collections.unmodifiableList(terms), bytes);
+            return fibonacciPrefix;
+        }
+    }
+
+    // π(x) < 1.25506 x / ln x，按上界估算素数表字节数
+    static long estimatedPrimeBytes(long limit) {
+        return (long) (4 * 1.25506 * limit / Math.log(Math.max(limit, 17)));
+    }
+
+    // F(k) 约 0.694k 位，前 n 项共约 0.0434 n^2 字节，另加每项的对象开销
+    static long estimatedFibonacciBytes(long n) {
+        return n * 56 + (long) (0.0434 * n * n);
+    }
+
+    // 对象头、int[] 头与数值本身
+    private static long bigIntegerBytes(BigInteger value) {
+        return 56 + value.bitLength() / 8;
+    }
+
+    // 素数表 primes 为 [2, limit] 内的全部素数
+    private static class PrimeTable {
+
+        private final int limit;
+
+        private final int[] primes;
+
+        PrimeTable(int limit, int[] primes) {
+            this.limit = limit;
+            this.primes = primes;
+        }
+
+        int[] slice(int from, int to) {
+            return Arrays.copyOfRange(primes, lowerBound(from), lowerBound((long) to + 1));
+        }
+
+        long count(int from, int to) {
+            return lowerBound((long) to + 1) - lowerBound(from);
+        }
+
+        // 第一个不小于 value 的下标
+        private int lowerBound(long value) {
+            int low = 0;
+            int high = primes.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (primes[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private static class FibonacciPrefix {
+
+        private final List<BigInteger> terms;
+
+        private final long bytes;
+
+        FibonacciPrefix(List<BigInteger> terms, long bytes) {
+            this.terms = terms;
+            this.bytes = bytes;
+        }
+    }
+
+    // extensions 为复用已有结果、只计算增量部分的请求
+    private static class Counters {
+
+        private final LongAdder hits = new LongAdder();
+
+        private final LongAdder extensions = new LongAdder();
+
+        private final LongAdder misses = new LongAdder();
+
+        CacheMetrics metrics(long coverage, long estimatedBytes, long maxBytes) {
+            long hitCount = hits.sum();
+            long extendCount = extensions.sum();
+            long missCount = misses.sum();
+            long total = hitCount + extendCount + missCount;
+            return new CacheMetrics(hitCount, extendCount, missCount, total == 0 ? 0 : (double) hitCount / total,
+                    coverage, estimatedBytes, maxBytes);
+        }
+    }
+
+    @Data
+    public static class ResultCacheStats {
+        private final boolean enabled;
+        private final CacheMetrics primes;
+        private final CacheMetrics fibonacci;
+        private final CacheMetrics factorial;
+    }
+
+    // coverage：素数表为已筛到的上限，斐波那契为前缀项数，阶乘为缓存条目数
+    @Data
+    public static class CacheMetrics {
+        private final long hitCount;
+        private final long extendCount;
+        private final long missCount;
+        private final double hitRate;
+        private final long coverage;
+        private final long estimatedBytes;
+        private final long maxBytes;
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.demo.algorithm;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// 分段埃氏筛：位图只记录奇数（第 i 位表示 2i+1），每段大小按 L2 缓存估算，
+// 多段时在 ForkJoin 公共池上并行筛选，结果按段顺序拼接。
+@Component
+public class PrimeEngine {
+
+    // 每段 2^18 个奇数，位图 32KB
+    static final int SEGMENT_ODDS = 1 << 18;
+
+    public int[] primesUpTo(int limit) {
+        return primesInRange(2, limit);
+    }
+
+    // 返回 [from, to] 闭区间内的素数
+    public int[] primesInRange(int from, int to) {
+        if (to < 2 || from > to) {
+            return new int[0];
+        }
+        boolean includeTwo = from <= 2;
+        int[] basePrimes = basePrimes(to);
+        List<int[]> segments = segmentStream(from, to)
+                .map(segment -> segment.sieve(basePrimes).primes())
+                .collect(Collectors.toList());
+        int total = includeTwo ? 1 : 0;
+        for (int[] primes : segments) {
+            total += primes.length;
+        }
+        int[] result = new int[total];
+        int offset = 0;
+        if (includeTwo) {
+            result[offset++] = 2;
+        }
+        for (int[] primes : segments) {
+            System.arraycopy(primes, 0, result, offset, primes.length);
+            offset += primes.length;
+        }
+        return result;
+    }
+
+    // 只计数，不物化素数列表
+    public long countPrimes(int from, int to) {
+        if (to < 2 || from > to) {
+            return 0;
+        }
+        int[] basePrimes = basePrimes(to);
+        long count = segmentStream(from, to)
+                .mapToLong(segment -> segment.sieve(basePrimes).count())
+                .sum();
+        return from <= 2 ? count + 1 : count;
+    }
+
+    // 按升序逐个回调，分段依次筛选，任意时刻只持有一个段的位图
+    public void forEachPrime(int from, int to, IntConsumer action) {
+        if (to < 2 || from > to) {
+            return;
+        }
+        if (from <= 2) {
+            action.accept(2);
+        }
+        int[] basePrimes = basePrimes(to);
+        segmentStream(from, to).sequential()
+                .forEachOrdered(segment -> segment.sieve(basePrimes).forEachPrime(action));
+    }
+
+    public boolean isPrime(int n) {
+        if (n <= 1) return false;
+        if (n <= 3) return true;
+        if (n % 2 == 0 || n % 3 == 0) return false;
+
+        for (int i = 5; (long) i * i <= n; i += 6) {
+            if (n % i == 0 || n % (i + 2) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 奇数 [max(from, 3), to] 按位序号切段；只有一段时不走并行
+    private Stream<Segment> segmentStream(int from, int to) {
+        long first = Math.max(from, 3) / 2;
+        long last = ((long) to - 1) / 2;
+        if (first > last) {
+            return Stream.empty();
+        }
+        int segments = (int) ((last - first) / SEGMENT_ODDS + 1);
+        IntStream stream = IntStream.range(0, segments);
+        return (segments > 1 ? stream.parallel() : stream)
+                .mapToObj(k -> {
+                    long low = first + (long) k * SEGMENT_ODDS;
+                    return new Segment(low, Math.min(low + SEGMENT_ODDS, last + 1));
+                });
+    }
+
+    // 用于筛选的奇素数：不超过 sqrt(to)
+    static int[] basePrimes(int to) {
+        int limit = (int) Math.sqrt(to);
+        boolean[] composite = new boolean[limit + 1];
+        int count = 0;
+        int[] primes = new int[Math.max(limit / 2, 1)];
+        for (int i = 3; i <= limit; i += 2) {
+            if (!composite[i]) {
+                primes[count++] = i;
+                for (int j = i * i; j <= limit; j += 2 * i) {
+                    composite[j] = true;
+                }
+            }
+        }
+        return Arrays.copyOf(primes, count);
+    }
+
+    // 奇数位序号区间 [low, high)，对应数值 2*low+1 到 2*high-1
+    static class Segment {
+
+        private final long low;
+
+        private final long high;
+
+        private long[] composite;
+
+        Segment(long low, long high) {
+            this.low = low;
+            this.high = high;
+        }
+
+        Segment sieve(int[] basePrimes) {
+            int bits = (int) (high - low);
+            composite = new long[(bits + 63) >>> 6];
+            if (low == 0) {
+                composite[0] |= 1L; // 1 不是素数
+            }
+            long lowValue = 2 * low + 1;
+            long highValue = 2 * high - 1;
+            for (int p : basePrimes) {
+                long square = (long) p * p;
+                if (square > highValue) {
+                    break;
+                }
+                // 区间内 p 的第一个奇数倍，且不小于 p*p
+                long start = Math.max(square, (lowValue + p - 1) / p * p);
+                if ((start & 1) == 0) {
+                    start += p;
+                }
+                for (long i = (start - 1) / 2 - low; i < bits; i += p) {
+                    composite[(int) (i >>> 6)] |= 1L << i;
+                }
+            }
+            return this;
+        }
+
+        long count() {
+            int bits = (int) (high - low);
+            long count = 0;
+            for (int w = 0; w < composite.length; w++) {
+                long primes = ~composite[w];
+                if (w == composite.length - 1 && (bits & 63) != 0) {
+                    primes &= (1L << (bits & 63)) - 1;
+                }
+                count += Long.bitCount(primes);
+            }
+            return count;
+        }
+
+        int[] primes() {
+            int[] result = new int[(int) count()];
+            int bits = (int) (high - low);
+            int n = 0;
+            for (int w = 0; w < composite.length; w++) {
+                long primes = ~composite[w];
+                while (primes != 0) {
+                    int bit = Long.numberOfTrailingZeros(primes);
+                    int i = (w << 6) + bit;
+                    if (i >= bits) {
+                        break;
+                    }
+                    result[n++] = (int) (2 * (low + i) + 1);
+                    primes &= primes - 1;
+                }
+            }
+            return result;
+        }
+
+        void forEachPrime(IntConsumer action) {
+            int bits = (int) (high - low);
+            for (int w = 0; w < composite.length; w++) {
+                long primes = ~composite[w];
+                while (primes != 0) {
+                    int i = (w << 6) + Long.numberOfTrailingZeros(primes);
+                    if (i >= bits) {
+                        break;
+                    }
+                    action.accept((int) (2 * (low + i) + 1));
+                    primes &= primes - 1;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.algorithm;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+@Component
+public class SearchEngine {
+
+    // 二分查找算法，返回目标在排序后数组中的下标；对拷贝排序，不修改调用方的数组。
+    // 同一数组需要多次查找时应使用 SortedArrayRegistry，只排序一次
+    public int binarySearch(int[] unsorted, int target) {
+        int[] array = unsorted.clone();
+        Arrays.sort(array); // 确保数组有序
+        int left = 0;
+        int right = array.length - 1;
+        
+        while (left <= right) {
+            int mid = left + (right - left) / 2;
+            
+            if (array[mid] == target) {
+                return mid;
+            }
+            
+            if (array[mid] < target) {
+                left = mid + 1;
+            } else {
+                right = mid - 1;
+            }
+        }
+        
+        return -1; // 未找到
+    }
+
+    // 第一个不小于 target 的位置。每轮只按比较结果选择 base，不做提前返回，
+    // 循环次数固定为 log2(n)，JIT 可生成条件传送指令，避免分支预测失败
+    public int lowerBound(SortedIntArray array, int target) {
+        int n = array.size();
+        if (n == 0) {
+            return 0;
+        }
+        int base = 0;
+        while (n > 1) {
+            int half = n >>> 1;
+            base = array.get(base + half) < target ? base + half : base;
+            n -= half;
+        }
+        return base + (array.get(base) < target ? 1 : 0);
+    }
+
+    // 第一个大于 target 的位置
+    public int upperBound(SortedIntArray array, int target) {
+        int n = array.size();
+        if (n == 0) {
+            return 0;
+        }
+        int base = 0;
+        while (n > 1) {
+            int half = n >>> 1;
+            base = array.get(base + half) <= target ? base + half : base;
+            n -= half;
+        }
+        return base + (array.get(base) <= target ? 1 : 0);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.algorithm;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+// 斐波那契数列与阶乘，均为任意精度。单项斐波那契数用快速倍增，阶乘用乘积树，
+// 最近请求过的单项斐波那契数按占用字节数限量缓存（阶乘的缓存在 AlgorithmResultCache 中）。
+@Component
+public class SequenceEngine {
+
+    // 缓存结果的总大小上限（按 BigInteger 位长估算）
+    static final long MEMO_MAX_BYTES = 32L * 1024 * 1024;
+
+    // 乘积树中元素个数低于该值时不再拆分并行任务
+    static final int PARALLEL_THRESHOLD = 4096;
+
+    // 连乘元素个数低于该值时直接按 long 累乘
+    private static final int LEAF_SIZE = 16;
+
+    private final Cache<Integer, BigInteger> fibonacciMemo = Caffeine.newBuilder()
+            .maximumWeight(MEMO_MAX_BYTES)
+            .weigher((Integer n, BigInteger value) -> value.bitLength() / 8 + 16)
+            .build();
+
+    // 斐波那契数列前 n 项
+    public List<BigInteger> fibonacci(int n) {
+        List<BigInteger> sequence = new ArrayList<>(n);
+        forEachFibonacci(n, sequence::add);
+        return sequence;
+    }
+
+    // 逐项回调，不保留已生成的序列
+    public void forEachFibonacci(int n, Consumer<BigInteger> action) {
+        BigInteger previous = BigInteger.ZERO;
+        BigInteger current = BigInteger.ONE;
+        for (int i = 0; i < n; i++) {
+            action.accept(previous);
+            BigInteger next = previous.add(current);
+            previous = current;
+            current = next;
+        }
+    }
+
+    // 第 n 项斐波那契数（F(0) = 0）
+    public BigInteger fibonacciTerm(int n) {
+        return fibonacciMemo.get(n, SequenceEngine::fastDoublingFibonacci);
+    }
+
+    // 计算阶乘
+    public BigInteger factorial(int n) {
+        return productTreeFactorial(n);
+    }
+
+    // 快速倍增：F(2k) = F(k) * (2F(k+1) - F(k))，F(2k+1) = F(k)^2 + F(k+1)^2，共 O(log n) 次乘法
+    static BigInteger fastDoublingFibonacci(int n) {
+        BigInteger a = BigInteger.ZERO; // F(k)
+        BigInteger b = BigInteger.ONE;  // F(k+1)
+        for (int bit = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(n); bit >= 0; bit--) {
+            BigInteger c = a.multiply(b.shiftLeft(1).subtract(a));
+            BigInteger d = a.multiply(a).add(b.multiply(b));
+            if (((n >>> bit) & 1) == 0) {
+                a = c;
+                b = d;
+            } else {
+                a = d;
+                b = c.add(d);
+            }
+        }
+        return a;
+    }
+
+    // 二分乘积树：相邻区间的乘积位长相近，乘法能用上 Karatsuba/Toom-Cook
+    static BigInteger productTreeFactorial(int n) {
+        return n < 2 ? BigInteger.ONE : rangeProduct(2, n);
+    }
+
+    // [low, high] 闭区间内整数的乘积，区间为空时为 1
+    static BigInteger rangeProduct(int low, int high) {
+        if (low > high) {
+            return BigInteger.ONE;
+        }
+        ProductTask task = new ProductTask(low, high);
+        return high - low < PARALLEL_THRESHOLD ? task.compute() : ForkJoinPool.commonPool().invoke(task);
+    }
+
+    // 计算 [low, high] 闭区间内整数的乘积
+    private static class ProductTask extends RecursiveTask<BigInteger> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int low;
+
+        private final int high;
+
+        ProductTask(int low, int high) {
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        protected BigInteger compute() {
+            if (high - low < PARALLEL_THRESHOLD) {
+                return product(low, high);
+            }
+            int mid = (low + high) >>> 1;
+            ProductTask left = new ProductTask(low, mid);
+            left.fork();
+            BigInteger right = new ProductTask(mid + 1, high).compute();
+            return left.join().multiply(right);
+        }
+
+        private static BigInteger product(int low, int high) {
+            if (high - low < LEAF_SIZE) {
+                // 叶子区间内的乘积不超过 long 时直接累乘
+                BigInteger result = BigInteger.ONE;
+                long partial = 1;
+                for (long i = low; i <= high; i++) {
+                    if (partial > Long.MAX_VALUE / i) {
+                        result = result.multiply(BigInteger.valueOf(partial));
+                        partial = 1;
+                    }
+                    partial *= i;
+                }
+                return result.multiply(BigInteger.valueOf(partial));
+            }
+            int mid = (low + high) >>> 1;
+            return product(low, mid).multiply(product(mid + 1, high));
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.demo.algorithm;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+// 排序算法实现，均为原地排序（基数排序需要等长的辅助数组）
+@Component
+public class SortEngine {
+
+    // 区间长度不超过该值时改用插入排序
+    static final int INSERTION_SORT_THRESHOLD = 24;
+
+    // 不小于该长度且有多个 CPU 时并行排序
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    // 不小于该长度时基数排序的线性扫描优于比较排序
+    static final int RADIX_THRESHOLD = 1 << 12;
+
+    // 逆序对相邻位置数不超过 n / 64 时视为基本有序
+    private static final int NEARLY_SORTED_RATIO = 64;
+
+    // 快速排序入口，按输入自动选择策略
+    public void quickSort(int[] array) {
+        sort(array, SortStrategy.AUTO);
+    }
+
+    // 返回实际使用的策略
+    public SortStrategy sort(int[] array, SortStrategy strategy) {
+        SortStrategy selected = strategy == SortStrategy.AUTO ? select(array) : strategy;
+        switch (selected) {
+            case PRESORTED:
+                if (isSorted(array)) {
+                    break;
+                }
+                if (isReverseSorted(array)) {
+                    reverse(array);
+                } else {
+                    introsort(array, 0, array.length);
+                }
+                break;
+            case INTROSORT:
+                introsort(array, 0, array.length);
+                break;
+            case DUAL_PIVOT:
+                Arrays.sort(array);
+                break;
+            case RADIX:
+                radixSort(array);
+                break;
+            case PARALLEL:
+                Arrays.parallelSort(array);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported sort strategy: " + selected);
+        }
+        return selected;
+    }
+
+    // 一次线性扫描统计相邻逆序与顺序的位置数，再结合规模选择策略
+    static SortStrategy select(int[] array) {
+        int n = array.length;
+        int descents = 0;
+        int ascents = 0;
+        for (int i = 1; i < n; i++) {
+            if (array[i] < array[i - 1]) {
+                descents++;
+            } else if (array[i] > array[i - 1]) {
+                ascents++;
+            }
+        }
+        if (descents == 0 || ascents == 0) {
+            return SortStrategy.PRESORTED;
+        }
+        if (n >= PARALLEL_THRESHOLD && Runtime.getRuntime().availableProcessors() > 1) {
+            return SortStrategy.PARALLEL;
+        }
+        if (descents <= n / NEARLY_SORTED_RATIO) {
+            return SortStrategy.DUAL_PIVOT;
+        }
+        if (n >= RADIX_THRESHOLD) {
+            return SortStrategy.RADIX;
+        }
+        return SortStrategy.INTROSORT;
+    }
+
+    static void introsort(int[] array, int from, int to) {
+        int length = to - from;
+        int depthLimit = length <= 1 ? 0 : 2 * (31 - Integer.numberOfLeadingZeros(length));
+        introsort(array, from, to, depthLimit);
+    }
+
+    // 区间 [low, high)：只对较短一侧递归、较长一侧循环，栈深度 O(log n)
+    private static void introsort(int[] array, int low, int high, int depthLimit) {
+        while (high - low > INSERTION_SORT_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                heapSort(array, low, high);
+                return;
+            }
+            int pivot = medianOfThree(array[low], array[low + ((high - low) >>> 1)], array[high - 1]);
+            // 三路划分：[low, lt) < pivot，[lt, i) == pivot，[gt, high) > pivot
+            int lt = low;
+            int i = low;
+            int gt = high;
+            while (i < gt) {
+                int value = array[i];
+                if (value < pivot) {
+                    swap(array, lt++, i++);
+                } else if (value > pivot) {
+                    swap(array, i, --gt);
+                } else {
+                    i++;
+                }
+            }
+            if (lt - low < high - gt) {
+                introsort(array, low, lt, depthLimit);
+                low = gt;
+            } else {
+                introsort(array, gt, high, depthLimit);
+                high = lt;
+            }
+        }
+        insertionSort(array, low, high);
+    }
+
+    private static int medianOfThree(int a, int b, int c) {
+        if (a > b) {
+            int temp = a;
+            a = b;
+            b = temp;
+        }
+        return c <= a ? a : Math.min(b, c);
+    }
+
+    private static void insertionSort(int[] array, int low, int high) {
+        for (int i = low + 1; i < high; i++) {
+            int value = array[i];
+            int j = i - 1;
+            while (j >= low && array[j] > value) {
+                array[j + 1] = array[j];
+                j--;
+            }
+            array[j + 1] = value;
+        }
+    }
+
+    static void heapSort(int[] array, int low, int high) {
+        int n = high - low;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(array, low, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(array, low, low + end);
+            siftDown(array, low, 0, end);
+        }
+    }
+
+    private static void siftDown(int[] array, int base, int i, int n) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) {
+                return;
+            }
+            if (child + 1 < n && array[base + child + 1] > array[base + child]) {
+                child++;
+            }
+            if (array[base + i] >= array[base + child]) {
+                return;
+            }
+            swap(array, base + i, base + child);
+            i = child;
+        }
+    }
+
+    // LSD 基数排序：一次扫描得到 4 个字节的直方图，所有元素某字节相同的趟直接跳过；
+    // 符号位取反后按无符号比较即为有符号顺序
+    static void radixSort(int[] array) {
+        int n = array.length;
+        int[][] counts = new int[4][257];
+        for (int value : array) {
+            int key = value ^ Integer.MIN_VALUE;
+            counts[0][(key & 0xFF) + 1]++;
+            counts[1][(key >>> 8 & 0xFF) + 1]++;
+            counts[2][(key >>> 16 & 0xFF) + 1]++;
+            counts[3][(key >>> 24) + 1]++;
+        }
+        int[] source = array;
+        int[] target = null;
+        for (int pass = 0; pass < 4; pass++) {
+            int[] offsets = counts[pass];
+            if (isSingleBucket(offsets, n)) {
+                continue;
+            }
+            for (int b = 0; b < 256; b++) {
+                offsets[b + 1] += offsets[b];
+            }
+            if (target == null) {
+                target = new int[n];
+            }
+            int shift = pass * 8;
+            for (int value : source) {
+                target[offsets[(value ^ Integer.MIN_VALUE) >>> shift & 0xFF]++] = value;
+            }
+            int[] temp = source;
+            source = target;
+            target = temp;
+        }
+        if (source != array) {
+            System.arraycopy(source, 0, array, 0, n);
+        }
+    }
+
+    private static boolean isSingleBucket(int[] counts, int n) {
+        for (int b = 1; b <= 256; b++) {
+            if (counts[b] != 0) {
+                return counts[b] == n;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSorted(int[] array) {
+        for (int i = 1; i < array.length; i++) {
+            if (array[i] < array[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isReverseSorted(int[] array) {
+        for (int i = 1; i < array.length; i++) {
+            if (array[i] > array[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void reverse(int[] array) {
+        for (int i = 0, j = array.length - 1; i < j; i++, j--) {
+            swap(array, i, j);
+        }
+    }
+
+    private static void swap(int[] array, int i, int j) {
+        int temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+
+    // 冒泡排序算法，某一趟没有发生交换即已有序，提前结束
+    public void bubbleSort(int[] array) {
+        int n = array.length;
+        for (int i = 0; i < n - 1; i++) {
+            boolean swapped = false;
+            for (int j = 0; j < n - i - 1; j++) {
+                if (array[j] > array[j + 1]) {
+                    // 交换 array[j] 和 array[j+1]
+                    int temp = array[j];
+                    array[j] = array[j + 1];
+                    array[j + 1] = temp;
+                    swapped = true;
+                }
+            }
+            if (!swapped) {
+                return;
+            }
+        }
+    }
+}
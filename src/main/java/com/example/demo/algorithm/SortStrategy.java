@@ -0,0 +1,22 @@
+package com.example.demo.algorithm;
+
+// 排序策略，AUTO 按规模和有序程度自动选择
+public enum SortStrategy {
+
+    AUTO,
+
+    // 已有序或完全逆序，线性时间处理
+    PRESORTED,
+
+    // 三数取中 + 三路划分的内省排序，递归过深时退化为堆排序
+    INTROSORT,
+
+    // JDK 双轴快排（Arrays.sort），对由少量有序段组成的输入会按段归并
+    DUAL_PIVOT,
+
+    // LSD 基数排序，每趟 8 位
+    RADIX,
+
+    // ForkJoin 并行排序（Arrays.parallelSort）
+    PARALLEL
+}
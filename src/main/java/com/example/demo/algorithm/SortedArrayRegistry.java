@@ -0,0 +1,46 @@
+package com.example.demo.algorithm;
+
+import com.example.demo.config.AlgorithmProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.UUID;
+
+// 上传一次、反复查找的已排序数组。按总字节数和访问空闲时间淘汰
+@Component
+public class SortedArrayRegistry {
+
+    private final SortEngine sortEngine;
+
+    private final Cache<String, SortedIntArray> arrays;
+
+    public SortedArrayRegistry(SortEngine sortEngine, AlgorithmProperties properties) {
+        AlgorithmProperties.SortedArrays config = properties.getSortedArrays();
+        this.sortEngine = sortEngine;
+        // 权重以 KB 计，避免大数组的字节数超出 int
+        this.arrays = Caffeine.newBuilder()
+                .maximumWeight(config.getMaxSize().toKilobytes())
+                .weigher((String id, SortedIntArray array) -> (int) Math.min(Integer.MAX_VALUE, (array.bytes() >> 10) + 1))
+                .expireAfterAccess(config.getExpireAfterAccess())
+                .build();
+    }
+
+    // 拷贝后排序，不修改调用方的数组
+    public String register(int[] values, boolean offHeap) {
+        int[] sorted = values.clone();
+        sortEngine.sort(sorted, SortStrategy.AUTO);
+        String id = UUID.randomUUID().toString();
+        arrays.put(id, offHeap ? SortedIntArray.offHeap(sorted) : SortedIntArray.onHeap(sorted));
+        return id;
+    }
+
+    public Optional<SortedIntArray> get(String id) {
+        return Optional.ofNullable(arrays.getIfPresent(id));
+    }
+
+    public boolean remove(String id) {
+        return arrays.asMap().remove(id) != null;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.demo.algorithm;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+// 已排序的只读 int 数组，可放在堆内或堆外（direct ByteBuffer）
+public interface SortedIntArray {
+
+    int size();
+
+    int get(int index);
+
+    boolean isOffHeap();
+
+    // 估算占用字节数
+    long bytes();
+
+    // 调用方需保证传入的数组已排序且不再修改
+    static SortedIntArray onHeap(int[] sorted) {
+        return new HeapArray(sorted);
+    }
+
+    // 拷贝到堆外，不占用 Java 堆，也不参与 GC 扫描；被淘汰后随 ByteBuffer 回收释放
+    static SortedIntArray offHeap(int[] sorted) {
+        IntBuffer buffer = ByteBuffer.allocateDirect(sorted.length * Integer.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asIntBuffer();
+        buffer.put(sorted);
+        return new DirectArray(buffer, sorted.length);
+    }
+
+    final class HeapArray implements SortedIntArray {
+
+        private final int[] values;
+
+        private HeapArray(int[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        @Override
+        public int get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public boolean isOffHeap() {
+            return false;
+        }
+
+        @Override
+        public long bytes() {
+            return 16 + (long) Integer.BYTES * values.length;
+        }
+    }
+
+    final class DirectArray implements SortedIntArray {
+
+        private final IntBuffer values;
+
+        private final int size;
+
+        private DirectArray(IntBuffer values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public int get(int index) {
+            return values.get(index);
+        }
+
+        @Override
+        public boolean isOffHeap() {
+            return true;
+        }
+
+        @Override
+        public long bytes() {
+            return (long) Integer.BYTES * size;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.algorithms")
+public class AlgorithmProperties {
+
+    private BubbleSort bubbleSort = new BubbleSort();
+
+    private SortedArrays sortedArrays = new SortedArrays();
+
+    private Jobs jobs = new Jobs();
+
+    private ResultCache resultCache = new ResultCache();
+
+    // application/octet-stream 请求体（int32 数组）的大小上限，超出时返回 413
+    private DataSize maxBinaryBodySize = DataSize.ofMegabytes(64);
+
+    // 冒泡排序是 O(n^2)，超过上限的数组不再交给冒泡排序
+    @Data
+    public static class BubbleSort {
+        private int maxSize = 5000;
+        // 超过上限时是否自动改用 O(n log n) 排序；为 false 时返回 400，除非请求显式传入 fallback=true
+        private boolean autoFallback = true;
+    }
+
+    // 预排序数组注册表配置
+    @Data
+    public static class SortedArrays {
+        // 所有已注册数组（含堆外）的总大小上限，超出时按 W-TinyLFU 淘汰
+        private DataSize maxSize = DataSize.ofMegabytes(256);
+        private Duration expireAfterAccess = Duration.ofMinutes(30);
+    }
+
+    // 异步任务配置
+    @Data
+    public static class Jobs {
+        private int threads = Runtime.getRuntime().availableProcessors();
+        // 排队中的任务数上限，超出时拒绝提交
+        private int queueCapacity = 256;
+        // 已结束任务的结果保留时间与总大小（按结果占用字节数估算）
+        private Duration resultTtl = Duration.ofMinutes(10);
+        private DataSize maxRetainedSize = DataSize.ofMegabytes(256);
+        // 长轮询单次最长等待时间
+        private Duration maxWait = Duration.ofSeconds(30);
+    }
+
+    // 斐波那契、素数、阶乘结果缓存配置
+    @Data
+    public static class ResultCache {
+        private boolean enabled = true;
+        // 缓存结果的总大小上限（按结果占用字节数估算）
+        private DataSize maxSize = DataSize.ofMegabytes(64);
+    }
+}
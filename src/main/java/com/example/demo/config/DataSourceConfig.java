@@ -0,0 +1,89 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// 用 app.datasource 中的连接池与 PgJDBC 语句配置创建数据源。
+// Actuator 会为 Hikari 连接池导出 hikaricp.connections.* 指标（按 pool 名称打标签）。
+// 配置了 app.datasource.replicas 时返回读写分离的 ReplicaRoutingDataSource。
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, DataSourceTuningProperties tuning) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        configure(primary, tuning);
+        if (tuning.getReplicas().isEmpty()) {
+            return primary;
+        }
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < tuning.getReplicas().size(); i++) {
+            replicas.add(replicaDataSource(properties, tuning, i));
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, tuning.getRouting());
+    }
+
+    // 单独的 MeterBinder：数据源本身不依赖 MeterRegistry，避免与连接池指标的自动配置循环依赖
+    @Bean
+    @ConditionalOnProperty(prefix = "app.datasource", name = "replicas[0].url")
+    public MeterBinder replicaRoutingMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ReplicaRoutingDataSource) {
+                ((ReplicaRoutingDataSource) dataSource).bindTo(registry);
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.datasource", name = "replicas[0].url")
+    public ReadYourWritesFilter readYourWritesFilter(DataSourceTuningProperties tuning) {
+        return new ReadYourWritesFilter(tuning.getRouting().getClientHeader());
+    }
+
+    static HikariDataSource replicaDataSource(DataSourceProperties properties, DataSourceTuningProperties tuning, int index) {
+        DataSourceTuningProperties.Replica replica = tuning.getReplicas().get(index);
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setJdbcUrl(replica.getUrl());
+        dataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : properties.determineUsername());
+        dataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : properties.determinePassword());
+        configure(dataSource, tuning);
+        String name = replica.getName() != null ? replica.getName() : "replica-" + (index + 1);
+        dataSource.setPoolName(name);
+        dataSource.addDataSourceProperty("ApplicationName", name);
+        // 副本只承担读取
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    static void configure(HikariDataSource dataSource, DataSourceTuningProperties tuning) {
+        DataSourceTuningProperties.Pool pool = tuning.getPool();
+        dataSource.setPoolName(pool.getName());
+        // pg_stat_activity 中按连接池区分连接
+        dataSource.addDataSourceProperty("ApplicationName", pool.getName());
+        dataSource.setMaximumPoolSize(pool.getMaximumPoolSize());
+        dataSource.setMinimumIdle(Math.min(pool.getMinimumIdle(), pool.getMaximumPoolSize()));
+        dataSource.setConnectionTimeout(pool.getConnectionTimeout().toMillis());
+        dataSource.setIdleTimeout(pool.getIdleTimeout().toMillis());
+        dataSource.setMaxLifetime(pool.getMaxLifetime().toMillis());
+        dataSource.setKeepaliveTime(pool.getKeepaliveTime().toMillis());
+        dataSource.setLeakDetectionThreshold(pool.getLeakDetectionThreshold().toMillis());
+
+        DataSourceTuningProperties.Statements statements = tuning.getStatements();
+        dataSource.addDataSourceProperty("prepareThreshold", statements.getPrepareThreshold());
+        dataSource.addDataSourceProperty("preparedStatementCacheQueries", statements.getPreparedStatementCacheQueries());
+        dataSource.addDataSourceProperty("preparedStatementCacheSizeMiB", statements.getPreparedStatementCacheSizeMiB());
+        dataSource.addDataSourceProperty("reWriteBatchedInserts", statements.isReWriteBatchedInserts());
+        dataSource.addDataSourceProperty("defaultRowFetchSize", statements.getFetchSize());
+        // 超时由服务端计时，客户端不必为每条语句启动定时任务
+        dataSource.addDataSourceProperty("options", "-c statement_timeout=" + statements.getStatementTimeout().toMillis());
+    }
+}
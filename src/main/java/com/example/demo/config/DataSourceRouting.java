@@ -0,0 +1,62 @@
+package com.example.demo.config;
+
+import java.util.function.Supplier;
+
+// 当前线程的读路由标记，由 ReplicaRoutingDataSource 在取连接时读取。
+// 只有在 replica / replicaForCache 中执行的语句和只读事务会走副本，其余语句都走主库；
+// 未配置副本时这些标记不起作用。
+public final class DataSourceRouting {
+
+    enum ReadMode {
+        // 允许读到副本复制延迟内的旧数据
+        STALE_OK,
+        // 结果会写入缓存，最近有任何写入时改走主库，避免把旧数据缓存下来
+        CACHEABLE
+    }
+
+    private static final ThreadLocal<ReadMode> READ_MODE = new ThreadLocal<>();
+
+    private static final ThreadLocal<String> CLIENT = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    public static <T> T replica(Supplier<T> query) {
+        return withReadMode(ReadMode.STALE_OK, query);
+    }
+
+    public static <T> T replicaForCache(Supplier<T> query) {
+        return withReadMode(ReadMode.CACHEABLE, query);
+    }
+
+    private static <T> T withReadMode(ReadMode mode, Supplier<T> query) {
+        ReadMode previous = READ_MODE.get();
+        READ_MODE.set(mode);
+        try {
+            return query.get();
+        } finally {
+            if (previous != null) {
+                READ_MODE.set(previous);
+            } else {
+                READ_MODE.remove();
+            }
+        }
+    }
+
+    static ReadMode currentReadMode() {
+        return READ_MODE.get();
+    }
+
+    // 由 ReadYourWritesFilter 在请求开始和结束时设置
+    static void setClient(String client) {
+        CLIENT.set(client);
+    }
+
+    static void clearClient() {
+        CLIENT.remove();
+    }
+
+    static String currentClient() {
+        return CLIENT.get();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// 连接池与 PgJDBC 语句相关配置，连接地址与账号仍使用 spring.datasource
+@Data
+@ConfigurationProperties(prefix = "app.datasource")
+public class DataSourceTuningProperties {
+
+    private Pool pool = new Pool();
+
+    private Statements statements = new Statements();
+
+    // 只读副本，为空时所有语句都走主库
+    private List<Replica> replicas = new ArrayList<>();
+
+    private Routing routing = new Routing();
+
+    // Hikari 连接池配置；最小空闲数等于最大连接数时为固定大小的连接池
+    @Data
+    public static class Pool {
+        private String name = "primary";
+        private int maximumPoolSize = 10;
+        private int minimumIdle = 10;
+        // 获取连接的最长等待时间，超时抛出 SQLTransientConnectionException
+        private Duration connectionTimeout = Duration.ofSeconds(5);
+        private Duration idleTimeout = Duration.ofMinutes(10);
+        private Duration maxLifetime = Duration.ofMinutes(30);
+        private Duration keepaliveTime = Duration.ofMinutes(5);
+        // 连接借出超过该时间未归还时打印告警，0 表示关闭
+        private Duration leakDetectionThreshold = Duration.ZERO;
+    }
+
+    // PgJDBC 语句配置
+    @Data
+    public static class Statements {
+        // 同一条 SQL 执行多少次后改用服务端预编译语句，0 表示不使用（经 PgBouncer 事务模式连接时需设为 0）
+        private int prepareThreshold = 1;
+        // 每个连接缓存的预编译语句条数与总大小
+        private int preparedStatementCacheQueries = 256;
+        private int preparedStatementCacheSizeMiB = 5;
+        // 批量 INSERT 改写为多值 INSERT
+        private boolean reWriteBatchedInserts = true;
+        // 每次从服务端取回的行数，0 表示一次取回全部结果；只在事务中（autocommit 关闭）生效
+        private int fetchSize = 0;
+        // 服务端语句超时（statement_timeout），0 表示不限制
+        private Duration statementTimeout = Duration.ofSeconds(30);
+    }
+
+    // 副本连接地址；名称为空时按顺序命名为 replica-1、replica-2……，账号为空时使用 spring.datasource 的账号。
+    // 连接池与语句配置和主库相同
+    @Data
+    public static class Replica {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+    }
+
+    @Data
+    public static class Routing {
+        private Strategy strategy = Strategy.ROUND_ROBIN;
+        // 客户端写入后该时间内，它的读请求仍走主库；任意写入后该时间内，要写入缓存的读取也走主库
+        private Duration readYourWritesWindow = Duration.ofSeconds(5);
+        // 探测副本可用性与往返延迟的间隔
+        private Duration probeInterval = Duration.ofSeconds(5);
+        // 标识客户端的请求头，没有该请求头时按来源地址区分
+        private String clientHeader = "X-Client-Id";
+    }
+
+    public enum Strategy {
+        ROUND_ROBIN,
+        // 选择探测延迟（指数加权平均）最低的副本
+        LEAST_LATENCY
+    }
+}
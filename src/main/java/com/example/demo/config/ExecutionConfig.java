@@ -0,0 +1,50 @@
+package com.example.demo.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+// app.execution.mode=virtual-threads 时，Tomcat 请求线程与 MVC 异步任务（流式响应）都改为虚拟线程。
+// 并发请求数不再受 Tomcat 线程池限制，而是受 server.tomcat.max-connections 与数据库连接池限制。
+@Slf4j
+@Configuration
+public class ExecutionConfig implements WebMvcConfigurer {
+
+    private final Optional<Executor> virtualThreadExecutor;
+
+    public ExecutionConfig(ExecutionProperties properties) {
+        this.virtualThreadExecutor = virtualThreadExecutor(properties.getMode());
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> virtualThreadExecutor.ifPresent(protocolHandler::setExecutor);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        virtualThreadExecutor.ifPresent(executor -> configurer.setTaskExecutor(new TaskExecutorAdapter(executor)));
+    }
+
+    static Optional<Executor> virtualThreadExecutor(ExecutionProperties.Mode mode) {
+        if (mode != ExecutionProperties.Mode.VIRTUAL_THREADS) {
+            return Optional.empty();
+        }
+        Optional<Executor> executor = VirtualThreads.executor("http-virtual-");
+        if (executor.isPresent()) {
+            log.info("Serving requests on virtual threads");
+        } else {
+            log.warn("Virtual threads require Java 21 or later (running on {}), falling back to platform threads",
+                    System.getProperty("java.version"));
+        }
+        return executor;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// 请求处理线程模式
+@Data
+@ConfigurationProperties(prefix = "app.execution")
+public class ExecutionProperties {
+
+    // virtual-threads 需要运行在 Java 21 及以上，否则回退为平台线程
+    private Mode mode = Mode.PLATFORM;
+
+    public enum Mode {
+        // Tomcat 线程池（server.tomcat.threads.max），每个请求占用一个平台线程
+        PLATFORM,
+        // 每个请求一个虚拟线程，阻塞在数据库往返时不占用平台线程
+        VIRTUAL_THREADS
+    }
+}
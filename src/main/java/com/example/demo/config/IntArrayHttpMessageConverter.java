@@ -0,0 +1,106 @@
+package com.example.demo.config;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+// application/octet-stream 与 int[] 互转：连续的小端 int32，无分隔符，无装箱
+public class IntArrayHttpMessageConverter extends AbstractHttpMessageConverter<int[]> {
+
+    // 读取时的缓冲区大小，请求体按块解码，不整体缓存
+    private static final int CHUNK_SIZE = 8192;
+
+    // 未声明 Content-Length 时数组的初始长度
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final long maxBodySize;
+
+    public IntArrayHttpMessageConverter(long maxBodySize) {
+        super(MediaType.APPLICATION_OCTET_STREAM);
+        this.maxBodySize = maxBodySize;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return int[].class == clazz;
+    }
+
+    // 请求体超过 maxBodySize 时返回 413：声明的 Content-Length 超限时不读取，分块传输时读到超限为止
+    @Override
+    protected int[] readInternal(Class<? extends int[]> clazz, HttpInputMessage inputMessage) throws IOException {
+        long contentLength = inputMessage.getHeaders().getContentLength();
+        if (contentLength > maxBodySize) {
+            throw tooLarge();
+        }
+        if (contentLength >= 0 && contentLength % Integer.BYTES != 0) {
+            throw notMultipleOfFour(contentLength, inputMessage);
+        }
+        int[] values = new int[contentLength >= 0 ? (int) (contentLength / Integer.BYTES) : INITIAL_CAPACITY];
+        int count = 0;
+        long total = 0;
+        byte[] chunk = new byte[CHUNK_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(chunk).order(ByteOrder.LITTLE_ENDIAN);
+        // chunk 开头尚未凑满 4 字节的部分
+        int pending = 0;
+        InputStream body = inputMessage.getBody();
+        int read;
+        while ((read = body.read(chunk, pending, chunk.length - pending)) != -1) {
+            total += read;
+            if (total > maxBodySize) {
+                throw tooLarge();
+            }
+            int available = pending + read;
+            int ints = available / Integer.BYTES;
+            if (count + ints > values.length) {
+                values = Arrays.copyOf(values, grow(values.length, count + ints));
+            }
+            buffer.clear().limit(ints * Integer.BYTES);
+            buffer.asIntBuffer().get(values, count, ints);
+            count += ints;
+            pending = available - ints * Integer.BYTES;
+            System.arraycopy(chunk, ints * Integer.BYTES, chunk, 0, pending);
+        }
+        if (pending != 0) {
+            throw notMultipleOfFour(total, inputMessage);
+        }
+        return count == values.length ? values : Arrays.copyOf(values, count);
+    }
+
+    // 按倍数扩容，但不超过 maxBodySize 对应的长度
+    private int grow(int length, int required) {
+        long limit = Math.min(maxBodySize / Integer.BYTES, Integer.MAX_VALUE - 8);
+        return (int) Math.max(required, Math.min((long) length * 2, limit));
+    }
+
+    private ResponseStatusException tooLarge() {
+        return new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                "Request body exceeds " + maxBodySize + " bytes");
+    }
+
+    private static HttpMessageNotReadableException notMultipleOfFour(long length, HttpInputMessage inputMessage) {
+        return new HttpMessageNotReadableException(
+                "Body length must be a multiple of 4 bytes: " + length, inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(int[] values, HttpOutputMessage outputMessage) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asIntBuffer().put(values);
+        outputMessage.getBody().write(buffer.array());
+    }
+
+    @Override
+    protected Long getContentLength(int[] values, MediaType contentType) {
+        return (long) values.length * Integer.BYTES;
+    }
+}
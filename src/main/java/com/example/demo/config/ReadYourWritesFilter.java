@@ -0,0 +1,32 @@
+package com.example.demo.config;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// 为请求线程设置客户端标识，ReplicaRoutingDataSource 据此让客户端在自己写入后的窗口期内从主库读取。
+// 流式响应在异步线程中执行，不带客户端标识。
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final String clientHeader;
+
+    public ReadYourWritesFilter(String clientHeader) {
+        this.clientHeader = clientHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String client = request.getHeader(clientHeader);
+        DataSourceRouting.setClient(client != null && !client.isBlank() ? client : request.getRemoteAddr());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            DataSourceRouting.clearClient();
+        }
+    }
+}
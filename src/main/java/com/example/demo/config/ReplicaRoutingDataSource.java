@@ -0,0 +1,257 @@
+package com.example.demo.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// 读写分离数据源：DataSourceRouting 标记的读取按轮询或探测延迟选择副本，其余语句和事务都走主库。
+// 外层的 LazyConnectionDataSourceProxy 把取物理连接推迟到第一条语句执行时，事务内的语句因此与事务使用同一个连接。
+// 副本取连接或探测失败时暂时摘除，探测恢复后重新加入；没有可用副本时读取回退到主库。
+@Slf4j
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements MeterBinder, AutoCloseable {
+
+    static final String METRIC_NAME = "datasource.route";
+
+    private final Router router;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                    DataSourceTuningProperties.Routing routing) {
+        this.router = new Router(primary, replicas, routing);
+        setTargetDataSource(router);
+        // 与 Hikari 和 PostgreSQL 的默认值一致，避免创建时为探测默认值而取连接
+        setDefaultAutoCommit(true);
+        setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        afterPropertiesSet();
+    }
+
+    // 路由数据源不会被 Actuator 识别为 Hikari 连接池，各连接池的 hikaricp 指标也在这里注册
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindRoutes(registry, router.primary, router.primaryRoutes);
+        for (Replica replica : router.replicas) {
+            bindRoutes(registry, replica.dataSource, replica.routes);
+            Gauge.builder("datasource.replica.up", replica, r -> r.up ? 1 : 0)
+                    .description("Whether the replica is currently used for reads")
+                    .tag("pool", replica.name)
+                    .register(registry);
+            Gauge.builder("datasource.replica.latency", replica, r -> r.latencyNanos / 1e6)
+                    .description("Smoothed round-trip time of the replica probe")
+                    .baseUnit("milliseconds")
+                    .tag("pool", replica.name)
+                    .register(registry);
+        }
+    }
+
+    private static void bindRoutes(MeterRegistry registry, HikariDataSource pool, LongAdder routes) {
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        FunctionCounter.builder(METRIC_NAME, routes, LongAdder::sum)
+                .description("Physical connections handed out by the routing data source")
+                .tag("pool", pool.getPoolName())
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        router.close();
+    }
+
+    private static class Router extends AbstractDataSource {
+
+        private final HikariDataSource primary;
+
+        private final LongAdder primaryRoutes = new LongAdder();
+
+        private final List<Replica> replicas = new ArrayList<>();
+
+        private final DataSourceTuningProperties.Strategy strategy;
+
+        private final long windowNanos;
+
+        // 窗口期内写入过的客户端
+        private final Cache<String, Boolean> recentWriters;
+
+        private volatile long lastWriteNanos;
+
+        private final AtomicInteger next = new AtomicInteger();
+
+        private final ScheduledExecutorService prober;
+
+        Router(HikariDataSource primary, List<HikariDataSource> replicas,
+               DataSourceTuningProperties.Routing routing) {
+            this.primary = primary;
+            for (HikariDataSource dataSource : replicas) {
+                this.replicas.add(new Replica(dataSource));
+            }
+            this.strategy = routing.getStrategy();
+            this.windowNanos = routing.getReadYourWritesWindow().toNanos();
+            this.recentWriters = Caffeine.newBuilder()
+                    .expireAfterWrite(routing.getReadYourWritesWindow())
+                    .maximumSize(100_000)
+                    .build();
+            this.lastWriteNanos = System.nanoTime() - windowNanos;
+            long probeMillis = routing.getProbeInterval().toMillis();
+            if (probeMillis > 0 && !replicas.isEmpty()) {
+                this.prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "replica-probe");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                prober.scheduleWithFixedDelay(this::probe, 0, probeMillis, TimeUnit.MILLISECONDS);
+            } else {
+                this.prober = null;
+            }
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Replica replica = chooseReplica();
+            if (replica != null) {
+                try {
+                    Connection connection = replica.dataSource.getConnection();
+                    replica.routes.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    replica.markDown(e);
+                }
+            }
+            primaryRoutes.increment();
+            return primary.getConnection();
+        }
+
+        // Hikari 连接池不支持按调用方凭据取连接，各连接池使用自己配置的账号
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLFeatureNotSupportedException("Routing data source uses the pools' own credentials");
+        }
+
+        // 返回 null 表示走主库
+        private Replica chooseReplica() {
+            long now = System.nanoTime();
+            String client = DataSourceRouting.currentClient();
+            DataSourceRouting.ReadMode mode = DataSourceRouting.currentReadMode();
+            boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+            if (inTransaction && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                // 只读事务不算写入，标记过的才走副本
+                return mode != null ? pickReplica() : null;
+            }
+            if (mode == null || inTransaction) {
+                // 未标记的语句都按写入处理，其中少量读取只会让更多读取走主库
+                lastWriteNanos = now;
+                if (client != null) {
+                    recentWriters.put(client, Boolean.TRUE);
+                }
+                return null;
+            }
+            if (mode == DataSourceRouting.ReadMode.CACHEABLE && now - lastWriteNanos < windowNanos) {
+                return null;
+            }
+            if (client != null && recentWriters.getIfPresent(client) != null) {
+                return null;
+            }
+            return pickReplica();
+        }
+
+        private Replica pickReplica() {
+            int size = replicas.size();
+            if (size == 0) {
+                return null;
+            }
+            if (strategy == DataSourceTuningProperties.Strategy.LEAST_LATENCY) {
+                Replica best = null;
+                for (Replica replica : replicas) {
+                    if (replica.up && (best == null || replica.latencyNanos < best.latencyNanos)) {
+                        best = replica;
+                    }
+                }
+                return best;
+            }
+            int start = Math.floorMod(next.getAndIncrement(), size);
+            for (int i = 0; i < size; i++) {
+                Replica replica = replicas.get((start + i) % size);
+                if (replica.up) {
+                    return replica;
+                }
+            }
+            return null;
+        }
+
+        // 延迟包含从连接池借出连接的时间，副本负载高、连接紧张时也会变大
+        private void probe() {
+            for (Replica replica : replicas) {
+                long start = System.nanoTime();
+                try (Connection connection = replica.dataSource.getConnection();
+                     Statement statement = connection.createStatement()) {
+                    statement.execute("SELECT 1");
+                    replica.markUp(System.nanoTime() - start);
+                } catch (SQLException e) {
+                    replica.markDown(e);
+                }
+            }
+        }
+
+        void close() {
+            if (prober != null) {
+                prober.shutdownNow();
+            }
+            for (Replica replica : replicas) {
+                replica.dataSource.close();
+            }
+            primary.close();
+        }
+    }
+
+    private static class Replica {
+
+        private final String name;
+
+        private final HikariDataSource dataSource;
+
+        private final LongAdder routes = new LongAdder();
+
+        private volatile boolean up = true;
+
+        private volatile long latencyNanos;
+
+        Replica(HikariDataSource dataSource) {
+            this.name = dataSource.getPoolName();
+            this.dataSource = dataSource;
+        }
+
+        // 只有探测线程写入延迟，指数加权平均平滑单次波动
+        void markUp(long sampleNanos) {
+            latencyNanos = latencyNanos == 0 ? sampleNanos : (latencyNanos * 4 + sampleNanos) / 5;
+            if (!up) {
+                up = true;
+                log.info("Replica {} is available again", name);
+            }
+        }
+
+        void markDown(SQLException e) {
+            if (up) {
+                up = false;
+                log.warn("Replica {} is unavailable, reading from other pools: {}", name, e.getMessage());
+            }
+        }
+    }
+}
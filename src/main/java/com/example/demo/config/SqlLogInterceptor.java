@@ -0,0 +1,87 @@
+package com.example.demo.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+// 替代逐条打印 SQL 与结果行：只记录超过阈值的慢语句和按比例抽样的语句，
+// 参数值可能含个人信息，不写入日志。字段以键值对输出，JSON 日志中为独立字段。
+@Slf4j
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor",
+                args = {MappedStatement.class, Object.class, RowBounds.class})
+})
+public class SqlLogInterceptor implements Interceptor {
+
+    private final long slowThresholdNanos;
+
+    private final double sampleRate;
+
+    private final int maxSqlLength;
+
+    public SqlLogInterceptor(SqlLogProperties properties) {
+        this.slowThresholdNanos = properties.getSlowThreshold().toNanos();
+        this.sampleRate = properties.getSampleRate();
+        this.maxSqlLength = properties.getMaxSqlLength();
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (elapsed >= slowThresholdNanos) {
+                if (log.isWarnEnabled()) {
+                    log.warn("Slow SQL {} {} {}", statementId(invocation), kv("elapsedMs", toMillis(elapsed)),
+                            kv("sql", sql(invocation)));
+                }
+            } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+                if (log.isInfoEnabled()) {
+                    log.info("Sampled SQL {} {} {}", statementId(invocation), kv("elapsedMs", toMillis(elapsed)),
+                            kv("sql", sql(invocation)));
+                }
+            }
+        }
+    }
+
+    private static Object statementId(Invocation invocation) {
+        return kv("statement", ((MappedStatement) invocation.getArgs()[0]).getId());
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    // 只在需要记录时才生成 SQL 文本，空白折叠为单个空格
+    private String sql(Invocation invocation) {
+        Object[] args = invocation.getArgs();
+        BoundSql boundSql = args.length == 6
+                ? (BoundSql) args[5]
+                : ((MappedStatement) args[0]).getBoundSql(args[1]);
+        String sql = boundSql.getSql().replaceAll("\\s+", " ").trim();
+        return sql.length() > maxSqlLength ? sql.substring(0, maxSqlLength) + "..." : sql;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// SQL 日志采样配置：只记录慢语句，以及按比例抽样的普通语句
+@Data
+@ConfigurationProperties(prefix = "app.sql-log")
+public class SqlLogProperties {
+
+    // 执行时间不低于该值的语句以 WARN 级别记录
+    private Duration slowThreshold = Duration.ofMillis(200);
+
+    // 其余语句的抽样比例，0 表示不抽样
+    private double sampleRate = 0;
+
+    // 日志中 SQL 文本的最大长度，超出部分截断
+    private int maxSqlLength = 2000;
+}
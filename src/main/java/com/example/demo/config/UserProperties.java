@@ -0,0 +1,76 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.users")
+public class UserProperties {
+
+    private Cache cache = new Cache();
+
+    private Batch batch = new Batch();
+
+    private Search search = new Search();
+
+    private NameIndex nameIndex = new NameIndex();
+
+    private Lookup lookup = new Lookup();
+
+    private Repartition repartition = new Repartition();
+
+    // 用户缓存配置
+    @Data
+    public static class Cache {
+        private boolean enabled = true;
+        private long maximumSize = 100_000;
+        private Duration ttl = Duration.ofMinutes(10);
+        // 未命中结果（用户不存在）的缓存时间
+        private Duration negativeTtl = Duration.ofSeconds(30);
+    }
+
+    // 批量创建配置
+    @Data
+    public static class Batch {
+        // 每条多行 INSERT 语句包含的行数
+        private int chunkSize = 1000;
+    }
+
+    // 姓名搜索配置
+    @Data
+    public static class Search {
+        // trigram 索引至少需要 3 个字符才能有效过滤
+        private int minQueryLength = 3;
+    }
+
+    // 进程内姓名索引配置，启用后 /search 不再查询数据库
+    @Data
+    public static class NameIndex {
+        private boolean enabled = false;
+        // 由索引返回 /search 结果时的最大条数，索引未就绪走数据库时不受此限制
+        private int maxResults = 20;
+    }
+
+    // 按 id / 邮箱查询用户时的请求合并配置
+    @Data
+    public static class Lookup {
+        // 并发的相同查询共享一次数据库查询
+        private boolean coalesce = true;
+        // 按 id 查询时，把一个窗口内的不同 id 合并为一次 id = ANY(?) 查询；每次查询最多增加一个窗口的延迟
+        private boolean microBatch = false;
+        private Duration batchWindow = Duration.ofMillis(2);
+        private int maxBatchSize = 500;
+    }
+
+    // 在线调整分区数（POST /api/users/repartition）
+    @Data
+    public static class Repartition {
+        // 每批复制或重放的行数
+        private int batchSize = 10_000;
+        // 切换时等待表锁的最长时间，超时后重放变更再重试
+        private Duration lockTimeout = Duration.ofSeconds(5);
+        private int swapAttempts = 3;
+    }
+}
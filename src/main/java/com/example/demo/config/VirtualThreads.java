@@ -0,0 +1,35 @@
+package com.example.demo.config;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+// 通过反射使用 Java 21 的虚拟线程 API，项目仍以 Java 11 编译，在低版本 JVM 上返回 empty
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static boolean isSupported() {
+        return factory("virtual-").isPresent();
+    }
+
+    // 线程名为 prefix 加递增序号
+    static Optional<ThreadFactory> factory(String prefix) {
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = ofVirtual.invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return Optional.of((ThreadFactory) builderClass.getMethod("factory").invoke(builder));
+        } catch (ReflectiveOperationException e) {
+            return Optional.empty();
+        }
+    }
+
+    // 每个任务一个新的虚拟线程，不复用、不排队
+    static Optional<Executor> executor(String prefix) {
+        return factory(prefix).map(factory -> task -> factory.newThread(task).start());
+    }
+}
@@ -1,10 +1,33 @@
 package com.example.demo.controller;
 
+import com.example.demo.algorithm.AlgorithmResultCache;
+import com.example.demo.algorithm.PrimeEngine;
+import com.example.demo.algorithm.SearchEngine;
+import com.example.demo.algorithm.SequenceEngine;
+import com.example.demo.algorithm.SortEngine;
+import com.example.demo.algorithm.SortedArrayRegistry;
+import com.example.demo.algorithm.SortedIntArray;
+import com.example.demo.algorithm.SortStrategy;
+import com.example.demo.config.AlgorithmProperties;
+import com.example.demo.service.AlgorithmJob;
+import com.example.demo.service.AlgorithmMetrics;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigInteger;
 import java.util.*;
 
 @RestController
@@ -12,173 +35,359 @@ import java.util.*;
 @RequiredArgsConstructor
 public class AlgorithmController {
 
+    // 任意精度结果的输入上限，超出时返回 400，避免单个请求占满 CPU 或内存
+    static final int MAX_FIBONACCI_LENGTH = 10_000;
+
+    static final int MAX_FIBONACCI_STREAM_LENGTH = 50_000;
+
+    static final int MAX_FIBONACCI_TERM = 10_000_000;
+
+    static final int MAX_FACTORIAL = 200_000;
+
+    // 返回完整素数列表时的上限（约 66 万个素数）；只计数与流式输出（/primeNumbers/stream）不物化列表，不受此限制
+    static final int MAX_PRIME_LIMIT = 10_000_000;
+
+    static final int MAX_PRIME_RANGE = 10_000_000;
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final SortEngine sortEngine;
+
+    private final SearchEngine searchEngine;
+
+    private final PrimeEngine primeEngine;
+
+    private final SequenceEngine sequenceEngine;
+
+    private final SortedArrayRegistry sortedArrayRegistry;
+
+    private final AlgorithmResultCache resultCache;
+
+    private final AlgorithmMetrics algorithmMetrics;
+
+    private final AlgorithmProperties algorithmProperties;
+
+    private final ObjectMapper objectMapper;
+
+    // includeOriginal=false 时响应中不回显原数组
     @GetMapping("/binarySearch")
-    public ResponseEntity<BinarySearchResult> binarySearch(@RequestParam int[] array, @RequestParam int target) {
-        int result = performBinarySearch(array, target);
-        return ResponseEntity.ok(new BinarySearchResult(array, target, result));
+    public ResponseEntity<BinarySearchResult> binarySearch(@RequestParam int[] array, @RequestParam int target,
+                                                           @RequestParam(defaultValue = "true") boolean includeOriginal) {
+        int result = algorithmMetrics.time("binarySearch", array.length, () -> searchEngine.binarySearch(array, target));
+        return ResponseEntity.ok(new BinarySearchResult(includeOriginal ? array : null, target, result));
+    }
+
+    // 请求体为小端 int32 序列（application/octet-stream），大数组不受 URL 长度限制
+    @PostMapping(value = "/binarySearch", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<BinarySearchResult> binarySearchBinary(@RequestBody int[] array, @RequestParam int target,
+                                                                 @RequestParam(defaultValue = "false") boolean includeOriginal) {
+        return binarySearch(array, target, includeOriginal);
     }
 
+    // 上传数组，排序后保存在注册表中，之后按 id 反复查找；offHeap=true 时存放在堆外
+    @PostMapping("/sortedArrays/create")
+    public ResponseEntity<SortedArrayInfo> createSortedArray(@RequestBody int[] array,
+                                                             @RequestParam(defaultValue = "false") boolean offHeap) {
+        String id = algorithmMetrics.time("sortedArrays.register", array.length,
+                () -> sortedArrayRegistry.register(array, offHeap));
+        return ResponseEntity.status(HttpStatus.CREATED).body(new SortedArrayInfo(id, array.length, offHeap));
+    }
+
+    @GetMapping("/sortedArrays/{id}/search")
+    public ResponseEntity<LookupResult> searchSortedArray(@PathVariable String id, @RequestParam int target) {
+        return sortedArrayRegistry.get(id)
+                .map(array -> ResponseEntity.ok(lookup(array, target)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/sortedArrays/{id}/batchSearch")
+    public ResponseEntity<List<LookupResult>> batchSearchSortedArray(@PathVariable String id, @RequestBody int[] targets) {
+        Optional<SortedIntArray> array = sortedArrayRegistry.get(id);
+        if (array.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        List<LookupResult> results = new ArrayList<>(targets.length);
+        for (int target : targets) {
+            results.add(lookup(array.get(), target));
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    @PostMapping("/sortedArrays/delete/{id}")
+    public ResponseEntity<Void> deleteSortedArray(@PathVariable String id) {
+        return sortedArrayRegistry.remove(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    // strategy 缺省为 AUTO，按规模和有序程度自动选择，实际使用的策略在结果中返回
     @GetMapping("/quickSort")
-    public ResponseEntity<SortResult> quickSort(@RequestParam int[] array) {
-        int[] sortedArray = array.clone();
-        performQuickSort(sortedArray, 0, sortedArray.length - 1);
-        return ResponseEntity.ok(new SortResult(array, sortedArray, "quickSort"));
+    public ResponseEntity<SortResult> quickSort(@RequestParam int[] array,
+                                                @RequestParam(defaultValue = "AUTO") SortStrategy strategy,
+                                                @RequestParam(defaultValue = "true") boolean includeOriginal) {
+        SortResult result = sortWithEngine("quickSort", array.clone(), strategy);
+        result.setOriginalArray(includeOriginal ? array : null);
+        return ResponseEntity.ok(result);
+    }
+
+    // 二进制协议：请求体与响应体均为小端 int32 序列，策略与 CPU 时间放在响应头中
+    @PostMapping(value = "/quickSort", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+            produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<int[]> quickSortBinary(@RequestBody int[] array,
+                                                 @RequestParam(defaultValue = "AUTO") SortStrategy strategy) {
+        return binarySortResponse(sortWithEngine("quickSort", array, strategy));
     }
 
+    // 数组超过 app.algorithms.bubble-sort.max-size 时，fallback=true 改用排序引擎，否则返回 400；
+    // 未传 fallback 时按 app.algorithms.bubble-sort.auto-fallback
     @GetMapping("/bubbleSort")
-    public ResponseEntity<SortResult> bubbleSort(@RequestParam int[] array) {
-        int[] sortedArray = array.clone();
-        performBubbleSort(sortedArray);
-        return ResponseEntity.ok(new SortResult(array, sortedArray, "bubbleSort"));
+    public ResponseEntity<SortResult> bubbleSort(@RequestParam int[] array,
+                                                 @RequestParam(required = false) Boolean fallback,
+                                                 @RequestParam(defaultValue = "true") boolean includeOriginal) {
+        SortResult result = bubbleSortOrFallback(array.clone(), fallback);
+        if (result == null) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        result.setOriginalArray(includeOriginal ? array : null);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping(value = "/bubbleSort", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+            produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<int[]> bubbleSortBinary(@RequestBody int[] array,
+                                                  @RequestParam(required = false) Boolean fallback) {
+        SortResult result = bubbleSortOrFallback(array, fallback);
+        if (result == null) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        return binarySortResponse(result);
     }
 
     @GetMapping("/fibonacci")
     public ResponseEntity<FibonacciResult> fibonacci(@RequestParam int n) {
-        if (n < 0) {
+        if (n < 0 || n > MAX_FIBONACCI_LENGTH) {
             return ResponseEntity.badRequest().body(null);
         }
-        List<Integer> sequence = generateFibonacci(n);
+        List<BigInteger> sequence = algorithmMetrics.time("fibonacci", n, () -> resultCache.fibonacci(n));
         return ResponseEntity.ok(new FibonacciResult(n, sequence));
     }
 
+    // 单项查询，第 n 项（F(0) = 0）
+    @GetMapping("/fibonacci/nth")
+    public ResponseEntity<FibonacciTermResult> fibonacciTerm(@RequestParam int n) {
+        if (n < 0 || n > MAX_FIBONACCI_TERM) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        BigInteger term = algorithmMetrics.time("fibonacci.nth", n, () -> resultCache.fibonacciTerm(n));
+        return ResponseEntity.ok(new FibonacciTermResult(n, term));
+    }
+
+    // 流式输出：边生成边写入响应，只保留最近两项
+    @GetMapping(value = "/fibonacci/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamFibonacci(@RequestParam int n) {
+        if (n < 0 || n > MAX_FIBONACCI_STREAM_LENGTH) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.writeStartObject();
+                generator.writeNumberField("n", n);
+                generator.writeArrayFieldStart("sequence");
+                sequenceEngine.forEachFibonacci(n, value -> writeNumber(generator, value));
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // limit 超过 MAX_PRIME_LIMIT 时返回 400 并说明可改用的流式输出或只计数接口
     @GetMapping("/primeNumbers")
     public ResponseEntity<PrimeResult> primeNumbers(@RequestParam int limit) {
+        if (limit > MAX_PRIME_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must not exceed " + MAX_PRIME_LIMIT
+                    + "; use /api/algorithms/primeNumbers/stream to list more primes"
+                    + " or /api/algorithms/primeNumbers/range?countOnly=true to count them");
+        }
         if (limit < 2) {
-            return ResponseEntity.ok(new PrimeResult(limit, new ArrayList<>()));
+            return ResponseEntity.ok(new PrimeResult(limit, new int[0]));
         }
-        List<Integer> primes = generatePrimes(limit);
+        int[] primes = algorithmMetrics.time("primeNumbers", limit, () -> resultCache.primesUpTo(limit));
         return ResponseEntity.ok(new PrimeResult(limit, primes));
     }
 
+    // 流式输出 [2, limit] 内的素数：分段筛出后逐段写出，不物化列表也不进入结果缓存，count 在数组之后写出
+    @GetMapping(value = "/primeNumbers/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPrimeNumbers(@RequestParam int limit) {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.writeStartObject();
+                generator.writeNumberField("limit", limit);
+                writePrimes(generator, 2, limit);
+                generator.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // 区间模式；countOnly=true 时只返回个数，不物化素数列表
+    @GetMapping("/primeNumbers/range")
+    public ResponseEntity<PrimeRangeResult> primeNumbersInRange(@RequestParam int from, @RequestParam int to,
+                                                                @RequestParam(defaultValue = "false") boolean countOnly) {
+        if (from > to) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        if (!countOnly && primeRangeTooWide(from, to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Range must not be wider than " + MAX_PRIME_RANGE
+                    + " numbers when listing primes; use countOnly=true or /api/algorithms/primeNumbers/range/stream");
+        }
+        if (countOnly) {
+            long count = algorithmMetrics.time("primeNumbers.count", (long) to - from + 1,
+                    () -> resultCache.countPrimes(from, to));
+            return ResponseEntity.ok(new PrimeRangeResult(from, to, count, null));
+        }
+        int[] primes = algorithmMetrics.time("primeNumbers.range", (long) to - from + 1,
+                () -> resultCache.primesInRange(from, to));
+        return ResponseEntity.ok(new PrimeRangeResult(from, to, primes.length, primes));
+    }
+
+    // 流式输出区间内的素数，count 在数组之后写出
+    @GetMapping(value = "/primeNumbers/range/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPrimeNumbersInRange(@RequestParam int from, @RequestParam int to) {
+        if (from > to) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.writeStartObject();
+                generator.writeNumberField("from", from);
+                generator.writeNumberField("to", to);
+                writePrimes(generator, from, to);
+                generator.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     @GetMapping("/factorial")
     public ResponseEntity<FactorialResult> factorial(@RequestParam int n) {
-        if (n < 0) {
+        if (n < 0 || n > MAX_FACTORIAL) {
             return ResponseEntity.badRequest().body(null);
         }
-        long result = calculateFactorial(n);
+        BigInteger result = algorithmMetrics.time("factorial", n, () -> resultCache.factorial(n));
         return ResponseEntity.ok(new FactorialResult(n, result));
     }
 
-    // 二分查找算法
-    private int performBinarySearch(int[] array, int target) {
-        Arrays.sort(array); // 确保数组有序
-        int left = 0;
-        int right = array.length - 1;
-        
-        while (left <= right) {
-            int mid = left + (right - left) / 2;
-            
-            if (array[mid] == target) {
-                return mid;
-            }
-            
-            if (array[mid] < target) {
-                left = mid + 1;
-            } else {
-                right = mid - 1;
-            }
-        }
-        
-        return -1; // 未找到
+    // 斐波那契、素数、阶乘结果缓存的命中率与内存占用
+    @GetMapping("/cache/stats")
+    public ResponseEntity<AlgorithmResultCache.ResultCacheStats> getCacheStats() {
+        return ResponseEntity.ok(resultCache.stats());
+    }
+
+    // 写出 primes 数组和其后的 count 字段
+    private void writePrimes(JsonGenerator generator, int from, int to) throws IOException {
+        generator.writeArrayFieldStart("primes");
+        long[] count = new long[1];
+        primeEngine.forEachPrime(from, to, prime -> {
+            writeNumber(generator, prime);
+            count[0]++;
+        });
+        generator.writeEndArray();
+        generator.writeNumberField("count", count[0]);
+    }
+
+    // 默认错误页不包含原因，这里把 ResponseStatusException 的原因作为 JSON 响应体返回；
+    // 显式指定 Content-Type，二进制接口的 413 同样适用
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ErrorResult> handleResponseStatus(ResponseStatusException e) {
+        return ResponseEntity.status(e.getStatus())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ErrorResult(e.getRawStatusCode(), e.getReason()));
     }
 
-    // 快速排序算法
-    private void performQuickSort(int[] array, int low, int high) {
-        if (low < high) {
-            int pi = partition(array, low, high);
-            performQuickSort(array, low, pi - 1);
-            performQuickSort(array, pi + 1, high);
+    // 小于 2 的部分没有素数，不计入宽度
+    static boolean primeRangeTooWide(int from, int to) {
+        return (long) to - Math.max(from, 2) + 1 > MAX_PRIME_RANGE;
+    }
+
+    private LookupResult lookup(SortedIntArray array, int target) {
+        int lowerBound = searchEngine.lowerBound(array, target);
+        int upperBound = searchEngine.upperBound(array, target);
+        return new LookupResult(target, lowerBound, upperBound, upperBound > lowerBound);
+    }
+
+    // 原地排序传入的数组，结果中不含原数组；algorithm 为请求的接口名，冒泡排序回退时仍记为 bubbleSort，
+    // 由 strategy 区分实际走的是排序引擎
+    private SortResult sortWithEngine(String algorithm, int[] array, SortStrategy strategy) {
+        long start = currentThreadCpuTime();
+        long startNanos = System.nanoTime();
+        SortStrategy used = sortEngine.sort(array, strategy);
+        algorithmMetrics.record(algorithm, used.name(), array.length, System.nanoTime() - startNanos);
+        SortResult result = new SortResult(array, algorithm);
+        result.setStrategy(used);
+        result.setCpuTimeNanos(cpuTimeSince(start));
+        return result;
+    }
+
+    // 超过上限且不允许回退时返回 null
+    private SortResult bubbleSortOrFallback(int[] array, Boolean fallback) {
+        AlgorithmProperties.BubbleSort config = algorithmProperties.getBubbleSort();
+        if (array.length > config.getMaxSize()) {
+            boolean allowed = fallback != null ? fallback : config.isAutoFallback();
+            return allowed ? sortWithEngine("bubbleSort", array, SortStrategy.AUTO) : null;
         }
+        long start = currentThreadCpuTime();
+        algorithmMetrics.time("bubbleSort", array.length, () -> sortEngine.bubbleSort(array));
+        SortResult result = new SortResult(array, "bubbleSort");
+        result.setCpuTimeNanos(cpuTimeSince(start));
+        return result;
     }
 
-    private int partition(int[] array, int low, int high) {
-        int pivot = array[high];
-        int i = (low - 1);
-        
-        for (int j = low; j < high; j++) {
-            if (array[j] <= pivot) {
-                i++;
-                // 交换 array[i] 和 array[j]
-                int temp = array[i];
-                array[i] = array[j];
-                array[j] = temp;
-            }
+    private static ResponseEntity<int[]> binarySortResponse(SortResult result) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header("X-Sort-Algorithm", result.getAlgorithm());
+        if (result.getStrategy() != null) {
+            response.header("X-Sort-Strategy", result.getStrategy().name());
         }
-        
-        // 交换 array[i+1] 和 array[high]
-        int temp = array[i + 1];
-        array[i + 1] = array[high];
-        array[high] = temp;
-        
-        return i + 1;
-    }
-
-    // 冒泡排序算法
-    private void performBubbleSort(int[] array) {
-        int n = array.length;
-        for (int i = 0; i < n - 1; i++) {
-            for (int j = 0; j < n - i - 1; j++) {
-                if (array[j] > array[j + 1]) {
-                    // 交换 array[j] 和 array[j+1]
-                    int temp = array[j];
-                    array[j] = array[j + 1];
-                    array[j + 1] = temp;
-                }
-            }
+        if (result.getCpuTimeNanos() != null) {
+            response.header("X-Cpu-Time-Nanos", result.getCpuTimeNanos().toString());
         }
+        return response.body(result.getSortedArray());
     }
 
-    // 斐波那契数列
-    private List<Integer> generateFibonacci(int n) {
-        List<Integer> sequence = new ArrayList<>();
-        if (n == 0) return sequence;
-        
-        sequence.add(0);
-        if (n == 1) return sequence;
-        
-        sequence.add(1);
-        for (int i = 2; i < n; i++) {
-            sequence.add(sequence.get(i - 1) + sequence.get(i - 2));
-        }
-        return sequence;
+    // 当前请求线程消耗的 CPU 时间；PARALLEL 策略在 ForkJoin 线程上的耗时不计入
+    private static long currentThreadCpuTime() {
+        return THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : -1;
     }
 
-    // 生成素数
-    private List<Integer> generatePrimes(int limit) {
-        List<Integer> primes = new ArrayList<>();
-        for (int i = 2; i <= limit; i++) {
-            if (isPrime(i)) {
-                primes.add(i);
-            }
-        }
-        return primes;
+    private static Long cpuTimeSince(long start) {
+        return start < 0 ? null : THREAD_MX_BEAN.getCurrentThreadCpuTime() - start;
     }
 
-    private boolean isPrime(int n) {
-        if (n <= 1) return false;
-        if (n <= 3) return true;
-        if (n % 2 == 0 || n % 3 == 0) return false;
-        
-        for (int i = 5; i * i <= n; i += 6) {
-            if (n % i == 0 || n % (i + 2) == 0) {
-                return false;
-            }
+    // JsonGenerator 自带有界缓冲区，写满后才写入底层输出流；客户端读取慢时写入阻塞，生成随之暂停
+    private static void writeNumber(JsonGenerator generator, int value) {
+        try {
+            generator.writeNumber(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return true;
     }
 
-    // 计算阶乘
-    private long calculateFactorial(int n) {
-        if (n == 0 || n == 1) return 1;
-        long result = 1;
-        for (int i = 2; i <= n; i++) {
-            result *= i;
+    private static void writeNumber(JsonGenerator generator, BigInteger value) {
+        try {
+            generator.writeNumber(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return result;
     }
 
     // 结果类定义
     @Data
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     static class BinarySearchResult {
         private final int[] originalArray;
         private final int target;
@@ -186,27 +395,82 @@ public class AlgorithmController {
     }
 
     @Data
+    static class SortedArrayInfo {
+        private final String id;
+        private final int size;
+        private final boolean offHeap;
+    }
+
+    // [lowerBound, upperBound) 为等于 target 的元素在排序后数组中的下标范围
+    @Data
+    static class LookupResult {
+        private final int target;
+        private final int lowerBound;
+        private final int upperBound;
+        private final boolean exists;
+    }
+
+    @Data
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     static class SortResult {
-        private final int[] originalArray;
+        private int[] originalArray;
         private final int[] sortedArray;
         private final String algorithm;
+        private SortStrategy strategy;
+        private Long cpuTimeNanos;
     }
 
     @Data
     static class FibonacciResult {
         private final int n;
-        private final List<Integer> sequence;
+        private final List<BigInteger> sequence;
+    }
+
+    @Data
+    static class FibonacciTermResult implements AlgorithmJob.SizedResult {
+        private final int n;
+        private final BigInteger value;
+
+        @Override
+        public long estimatedBytes() {
+            return 64 + value.bitLength() / 8;
+        }
     }
 
     @Data
     static class PrimeResult {
         private final int limit;
-        private final List<Integer> primes;
+        private final int[] primes;
     }
 
     @Data
-    static class FactorialResult {
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    static class PrimeRangeResult implements AlgorithmJob.SizedResult {
+        private final int from;
+        private final int to;
+        private final long count;
+        private final int[] primes;
+
+        @Override
+        public long estimatedBytes() {
+            return 64 + (primes != null ? 4L * primes.length : 0);
+        }
+    }
+
+    @Data
+    static class FactorialResult implements AlgorithmJob.SizedResult {
         private final int n;
-        private final long result;
+        private final BigInteger result;
+
+        @Override
+        public long estimatedBytes() {
+            return 64 + result.bitLength() / 8;
+        }
+    }
+
+    @Data
+    static class ErrorResult {
+        private final int status;
+        private final String message;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,121 @@
+package com.example.demo.controller;
+
+import com.example.demo.algorithm.AlgorithmResultCache;
+import com.example.demo.algorithm.SortEngine;
+import com.example.demo.algorithm.SortStrategy;
+import com.example.demo.controller.AlgorithmController.FactorialResult;
+import com.example.demo.controller.AlgorithmController.FibonacciTermResult;
+import com.example.demo.controller.AlgorithmController.PrimeRangeResult;
+import com.example.demo.service.AlgorithmJob;
+import com.example.demo.service.AlgorithmJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+// 异步任务接口：提交后立即返回 202 和任务 id，计算在独立线程池中执行，请求线程不被占用
+@RestController
+@RequestMapping("/api/algorithms/jobs")
+@RequiredArgsConstructor
+public class AlgorithmJobController {
+
+    private final AlgorithmJobService jobService;
+
+    private final SortEngine sortEngine;
+
+    private final AlgorithmResultCache resultCache;
+
+    // 请求体为 JSON 数组或小端 int32 序列，结果为排序后的数组
+    @PostMapping("/quickSort")
+    public ResponseEntity<AlgorithmJob> submitSort(@RequestBody int[] array,
+                                                   @RequestParam(defaultValue = "AUTO") SortStrategy strategy,
+                                                   @RequestParam(defaultValue = "NORMAL") AlgorithmJob.Priority priority) {
+        return submit("quickSort", priority, () -> {
+            sortEngine.sort(array, strategy);
+            return array;
+        });
+    }
+
+    @PostMapping("/primeNumbers")
+    public ResponseEntity<AlgorithmJob> submitPrimes(@RequestParam int from, @RequestParam int to,
+                                                     @RequestParam(defaultValue = "false") boolean countOnly,
+                                                     @RequestParam(defaultValue = "NORMAL") AlgorithmJob.Priority priority) {
+        if (from > to || (!countOnly && AlgorithmController.primeRangeTooWide(from, to))) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        return submit("primeNumbers", priority, () -> {
+            if (countOnly) {
+                return new PrimeRangeResult(from, to, resultCache.countPrimes(from, to), null);
+            }
+            int[] primes = resultCache.primesInRange(from, to);
+            return new PrimeRangeResult(from, to, primes.length, primes);
+        });
+    }
+
+    @PostMapping("/factorial")
+    public ResponseEntity<AlgorithmJob> submitFactorial(@RequestParam int n,
+                                                        @RequestParam(defaultValue = "NORMAL") AlgorithmJob.Priority priority) {
+        if (n < 0 || n > AlgorithmController.MAX_FACTORIAL) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        return submit("factorial", priority, () -> new FactorialResult(n, resultCache.factorial(n)));
+    }
+
+    @PostMapping("/fibonacci/nth")
+    public ResponseEntity<AlgorithmJob> submitFibonacciTerm(@RequestParam int n,
+                                                            @RequestParam(defaultValue = "NORMAL") AlgorithmJob.Priority priority) {
+        if (n < 0 || n > AlgorithmController.MAX_FIBONACCI_TERM) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        return submit("fibonacci/nth", priority, () -> new FibonacciTermResult(n, resultCache.fibonacciTerm(n)));
+    }
+
+    // waitMs > 0 时长轮询：任务结束或等待超时后才返回，等待期间不占用请求线程
+    @GetMapping("/{id}")
+    public DeferredResult<ResponseEntity<AlgorithmJob>> getJob(@PathVariable String id,
+                                                               @RequestParam(defaultValue = "0") long waitMs) {
+        Optional<AlgorithmJob> found = jobService.getJob(id);
+        Duration wait = jobService.clampWait(Duration.ofMillis(waitMs));
+        if (found.isEmpty() || found.get().isDone() || wait.isZero()) {
+            DeferredResult<ResponseEntity<AlgorithmJob>> result = new DeferredResult<>();
+            result.setResult(found.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build()));
+            return result;
+        }
+        AlgorithmJob job = found.get();
+        DeferredResult<ResponseEntity<AlgorithmJob>> result =
+                new DeferredResult<>(wait.toMillis(), () -> ResponseEntity.ok(job));
+        job.getCompletion().thenAccept(done -> result.setResult(ResponseEntity.ok(done)));
+        return result;
+    }
+
+    // 只能取消排队中的任务，运行中的任务返回 409
+    @PostMapping("/cancel/{id}")
+    public ResponseEntity<Void> cancelJob(@PathVariable String id) {
+        try {
+            return jobService.cancel(id)
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<AlgorithmJobService.JobStats> getStats() {
+        return ResponseEntity.ok(jobService.stats());
+    }
+
+    private ResponseEntity<AlgorithmJob> submit(String type, AlgorithmJob.Priority priority, Supplier<Object> computation) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(jobService.submit(type, priority, computation));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
@@ -1,13 +1,36 @@
 package com.example.demo.controller;
 
 import com.example.demo.entity.User;
+import com.example.demo.entity.UserSearchHit;
+import com.example.demo.service.UserCache;
+import com.example.demo.service.UserCopyService;
+import com.example.demo.service.UserNameIndex;
+import com.example.demo.service.UserRepartitionService;
 import com.example.demo.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 @RestController
 @RequestMapping("/api/users")
@@ -16,12 +39,50 @@ public class UserController {
     
     private final UserService userService;
     
+    private final UserCopyService userCopyService;
+    
+    private final UserRepartitionService userRepartitionService;
+    
+    private final ObjectMapper objectMapper;
+    
     @GetMapping("getAll")
     public ResponseEntity<List<User>> getAllUsers() {
         List<User> users = userService.getAllUsers();
         return ResponseEntity.ok(users);
     }
     
+    @GetMapping("getAll/page")
+    public ResponseEntity<UserPage> getUsersPage(@RequestParam(required = false) Long beforeId,
+                                                 @RequestParam(defaultValue = "50") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, UserService.MAX_PAGE_SIZE));
+        List<User> users = userService.getUsersPage(beforeId, pageSize);
+        // 取满一页时返回最后一条的 id 作为下一页游标
+        Long nextCursor = users.size() == pageSize ? users.get(users.size() - 1).getId() : null;
+        return ResponseEntity.ok(new UserPage(users, nextCursor));
+    }
+    
+    // 流式输出全部用户：逐条写入 JSON 数组元素，内存占用与表大小无关
+    @GetMapping(value = "getAll/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        StreamingResponseBody body = outputStream -> {
+            ObjectWriter writer = objectMapper.writerFor(User.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.writeStartArray();
+                userService.streamAllUsers(user -> {
+                    try {
+                        writer.writeValue(generator, user);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+    
     @GetMapping("getById/{id}")
     public ResponseEntity<User> getUserById(@PathVariable Long id) {
         return userService.getUserById(id)
@@ -36,12 +97,67 @@ public class UserController {
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    // 批量查询：请求体为 id 数组，结果按请求顺序返回，未找到的项 found 为 false
+    @PostMapping(value = "/getByIds", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<UserService.MultiGetItem<Long>>> getUsersByIds(@RequestBody List<Long> ids) {
+        try {
+            return ResponseEntity.ok(userService.getUsersByIds(ids));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @PostMapping(value = "/getByEmails", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<UserService.MultiGetItem<String>>> getUsersByEmails(@RequestBody List<String> emails) {
+        try {
+            return ResponseEntity.ok(userService.getUsersByEmails(emails));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // limit 可选，未传时数据库路径返回全部匹配
     @GetMapping("/search")
-    public ResponseEntity<List<User>> getUsersByName(@RequestParam String name) {
-        List<User> users = userService.getUsersByNameContaining(name);
+    public ResponseEntity<List<User>> getUsersByName(@RequestParam String name,
+                                                     @RequestParam(required = false) Integer limit) {
+        List<User> users = userService.getUsersByNameContaining(name, limit != null ? Math.max(1, limit) : null);
         return ResponseEntity.ok(users);
     }
     
+    @GetMapping("/search/ranked")
+    public ResponseEntity<UserSearchPage> searchUsers(@RequestParam String q,
+                                                      @RequestParam(required = false) Double afterScore,
+                                                      @RequestParam(required = false) Long afterId,
+                                                      @RequestParam(defaultValue = "20") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, UserService.MAX_PAGE_SIZE));
+        List<UserSearchHit> hits;
+        try {
+            hits = userService.searchUsersByName(q, afterScore, afterId, pageSize);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        UserSearchHit last = hits.size() == pageSize ? hits.get(hits.size() - 1) : null;
+        return ResponseEntity.ok(new UserSearchPage(hits,
+                last != null ? last.getScore() : null,
+                last != null ? last.getUser().getId() : null));
+    }
+    
+    @GetMapping("/search/index/stats")
+    public ResponseEntity<UserNameIndex.IndexStats> getNameIndexStats() {
+        return ResponseEntity.ok(userService.getNameIndexStats());
+    }
+    
+    @GetMapping("/cache/stats")
+    public ResponseEntity<UserCache.UserCacheStats> getCacheStats() {
+        return ResponseEntity.ok(userService.getCacheStats());
+    }
+    
+    // 按 id / 邮箱查询的请求合并统计
+    @GetMapping("/lookup/stats")
+    public ResponseEntity<UserService.LookupStats> getLookupStats() {
+        return ResponseEntity.ok(userService.getLookupStats());
+    }
+    
     @PostMapping("/create")
     public ResponseEntity<User> createUser(@RequestBody User user) {
         try {
@@ -52,6 +168,80 @@ public class UserController {
         }
     }
     
+    @PostMapping(value = "/batchCreate", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<UserService.BatchItemResult>> createUsers(@RequestBody List<User> users) {
+        try {
+            return ResponseEntity.ok(userService.createUsers(users));
+        } catch (UserService.BatchAbortedException e) {
+            return abortedBatch(e);
+        }
+    }
+    
+    // NDJSON 逐行解析，按块写入，不需要先把整个请求体读入内存；无法解析的行记为该行的错误
+    @PostMapping(value = "/batchCreate", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<UserService.BatchItemResult>> createUsersNdjson(InputStream body) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        try {
+            return ResponseEntity.ok(userService.createUsers(new NdjsonUsers(reader, objectMapper.readerFor(User.class))));
+        } catch (UserService.BatchAbortedException e) {
+            return abortedBatch(e);
+        }
+    }
+    
+    // 已处理的行（成功的已提交）照常返回，客户端据此只重试之后的行；数据库错误返回 500，读取请求体失败返回 400
+    private static ResponseEntity<List<UserService.BatchItemResult>> abortedBatch(UserService.BatchAbortedException e) {
+        HttpStatus status = e.getCause() instanceof DataAccessException
+                ? HttpStatus.INTERNAL_SERVER_ERROR
+                : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(e.getCompleted());
+    }
+    
+    // 基于 COPY 的批量导入，逐行校验，不合法的行跳过并报告
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<UserCopyService.ImportResult> importUsersCsv(InputStream body) throws IOException {
+        try {
+            return ResponseEntity.ok(userCopyService.importCsv(body));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<UserCopyService.ImportResult> importUsersNdjson(InputStream body) throws IOException {
+        try {
+            return ResponseEntity.ok(userCopyService.importNdjson(body));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // 基于 COPY 的全表导出，数据库输出直接写入响应流
+    @GetMapping(value = "/export", produces = "text/csv")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = userCopyService::exportCsv;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .header("Content-Disposition", "attachment; filename=users.csv")
+                .body(body);
+    }
+    
+    // 在后台把用户表调整为 partitions 个哈希分区，进度通过 /repartition/status 查询
+    @PostMapping("/repartition")
+    public ResponseEntity<UserRepartitionService.RepartitionStatus> repartition(@RequestParam int partitions) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(userRepartitionService.start(partitions));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(userRepartitionService.status());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/repartition/status")
+    public ResponseEntity<UserRepartitionService.RepartitionStatus> getRepartitionStatus() {
+        return ResponseEntity.ok(userRepartitionService.status());
+    }
+    
     @PostMapping("/update/{id}")
     public ResponseEntity<User> updateUser(@PathVariable Long id, @RequestBody User userDetails) {
         try {
@@ -71,4 +261,64 @@ public class UserController {
             return ResponseEntity.notFound().build();
         }
     }
+    
+    // 按行读取 NDJSON，跳过空行；每行单独解析，一行出错不影响之后的行
+    private static class NdjsonUsers implements Iterator<User> {
+        
+        private final BufferedReader reader;
+        
+        private final ObjectReader userReader;
+        
+        private String nextLine;
+        
+        NdjsonUsers(BufferedReader reader, ObjectReader userReader) {
+            this.reader = reader;
+            this.userReader = userReader;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            try {
+                while (nextLine == null) {
+                    String line = reader.readLine();
+                    if (line == null) {
+                        return false;
+                    }
+                    if (!line.isBlank()) {
+                        nextLine = line;
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        @Override
+        public User next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String line = nextLine;
+            nextLine = null;
+            try {
+                return userReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                throw new UserService.InvalidBatchItemException("Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+    
+    @Data
+    static class UserPage {
+        private final List<User> users;
+        private final Long nextCursor;
+    }
+    
+    @Data
+    static class UserSearchPage {
+        private final List<UserSearchHit> hits;
+        private final Double nextScore;
+        private final Long nextId;
+    }
 }
\ No newline at end of file
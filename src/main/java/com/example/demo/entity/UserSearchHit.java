@@ -0,0 +1,15 @@
+package com.example.demo.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSearchHit {
+    
+    private User user;
+    
+    private Double score;
+}
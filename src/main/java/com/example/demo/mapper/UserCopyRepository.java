@@ -0,0 +1,85 @@
+package com.example.demo.mapper;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// 基于 PostgreSQL COPY 协议的批量导入导出，数据直接在流之间传递，不经过 MyBatis 映射
+@Repository
+@RequiredArgsConstructor
+public class UserCopyRepository {
+
+    private static final String COPY_IN_SQL =
+            "COPY users (name, email, created_at, updated_at) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String COPY_OUT_SQL =
+            "COPY (SELECT id, name, email, created_at, updated_at FROM users ORDER BY id) "
+                    + "TO STDOUT WITH (FORMAT csv, HEADER true)";
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final DataSource dataSource;
+
+    // writer 向 COPY 流写入 CSV 行（name, email, created_at, updated_at），返回导入的行数
+    public long copyIn(CopyWriter writer) throws SQLException, IOException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            disableStatementTimeout(connection);
+            PGCopyOutputStream out = new PGCopyOutputStream(
+                    connection.unwrap(PGConnection.class), COPY_IN_SQL, COPY_BUFFER_SIZE);
+            try {
+                writer.write(out);
+                return out.endCopy();
+            } catch (IOException | RuntimeException e) {
+                if (out.isActive()) {
+                    out.cancelCopy();
+                }
+                throw e;
+            }
+        } finally {
+            resetStatementTimeout(connection);
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    // 将全表以带表头的 CSV 写入输出流，返回导出的行数
+    public long copyOut(OutputStream out) throws SQLException, IOException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            disableStatementTimeout(connection);
+            return connection.unwrap(PGConnection.class).getCopyAPI().copyOut(COPY_OUT_SQL, out);
+        } finally {
+            resetStatementTimeout(connection);
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    // COPY 是单条语句，耗时随数据量增长，不受连接默认的 statement_timeout 限制
+    private static void disableStatementTimeout(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET statement_timeout = 0");
+        }
+    }
+
+    // 恢复为建立连接时的设置；连接已不可用时由连接池处理
+    private static void resetStatementTimeout(Connection connection) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("RESET statement_timeout");
+        } catch (SQLException ignored) {
+        }
+    }
+
+    @FunctionalInterface
+    public interface CopyWriter {
+        void write(OutputStream out) throws IOException;
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.demo.mapper;
 
 import com.example.demo.entity.User;
+import com.example.demo.entity.UserSearchHit;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
 import java.util.List;
 
@@ -10,19 +13,33 @@ public interface UserMapper {
     
     List<User> findAll();
     
+    List<User> findPage(@Param("beforeId") Long beforeId, @Param("limit") int limit);
+    
+    Cursor<User> streamAll();
+    
     User findById(Long id);
     
+    List<User> findByIds(@Param("ids") Long[] ids);
+    
     User findByEmail(String email);
     
-    List<User> findByNameContaining(String name);
+    List<User> findByEmails(@Param("emails") String[] emails);
+    
+    List<User> findByNameContaining(@Param("name") String name, @Param("limit") Integer limit);
+    
+    List<UserSearchHit> searchByName(@Param("query") String query,
+                                     @Param("pattern") String pattern,
+                                     @Param("afterScore") Double afterScore,
+                                     @Param("afterId") Long afterId,
+                                     @Param("limit") int limit);
     
-    int insert(User user);
+    Long insertIfAbsent(User user);
     
-    int update(User user);
+    int insertBatch(@Param("users") List<User> users);
     
-    int deleteById(Long id);
+    User updateReturning(User user);
     
-    int countByEmail(String email);
+    User deleteByIdReturning(Long id);
     
-    int countById(Long id);
+    List<String> findExistingEmails(@Param("emails") String[] emails);
 }
\ No newline at end of file
@@ -0,0 +1,272 @@
+package com.example.demo.mapper;
+
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// 在线调整 users / user_emails 的哈希分区数：在 *_repartition 新表上按 id 分批复制，
+// 复制期间 users 上的变更由触发器记录到 users_repartition_changes，最后在表锁内重放剩余变更并换表。
+// 新表的结构与索引和 db/schema.sql 保持一致。
+@Repository
+@RequiredArgsConstructor
+public class UserPartitionRepository {
+
+    private static final String COPY_BATCH_SQL =
+            "WITH batch AS ("
+                    + " SELECT id, name, email, created_at, updated_at FROM users WHERE id > ? ORDER BY id LIMIT ?"
+                    + "), copied AS ("
+                    + " INSERT INTO users_repartition (id, name, email, created_at, updated_at) SELECT * FROM batch"
+                    + "), emails AS ("
+                    + " INSERT INTO user_emails_repartition (email, user_id) SELECT email, id FROM batch"
+                    + " ON CONFLICT (email) DO UPDATE SET user_id = EXCLUDED.user_id"
+                    + ") SELECT max(id), count(*) FROM batch";
+
+    private final DataSource dataSource;
+
+    // 各分区 reltuples 之和，未 ANALYZE 过的分区按 0 计
+    public long estimateRows() throws SQLException {
+        return execute(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(
+                         "SELECT COALESCE(sum(GREATEST(c.reltuples, 0)), 0)::bigint FROM pg_inherits i"
+                                 + " JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'users'::regclass")) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        });
+    }
+
+    // 创建新表与变更记录触发器，上次失败的残留先清理。
+    // 创建触发器需要等待 users 上进行中的写事务结束，之后的写入都会被记录
+    public void prepare(int partitions) throws SQLException {
+        inTransaction(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                dropLeftovers(statement);
+                statement.execute("CREATE TABLE users_repartition (LIKE users INCLUDING DEFAULTS, PRIMARY KEY (id))"
+                        + " PARTITION BY HASH (id)");
+                statement.execute("CREATE TABLE user_emails_repartition (LIKE user_emails, PRIMARY KEY (email))"
+                        + " PARTITION BY HASH (email)");
+                for (int i = 0; i < partitions; i++) {
+                    statement.execute(String.format("CREATE TABLE users_repartition_p%d PARTITION OF users_repartition"
+                            + " FOR VALUES WITH (MODULUS %d, REMAINDER %d)", i, partitions, i));
+                    statement.execute(String.format("CREATE TABLE user_emails_repartition_p%d PARTITION OF user_emails_repartition"
+                            + " FOR VALUES WITH (MODULUS %d, REMAINDER %d)", i, partitions, i));
+                }
+                statement.execute("CREATE TABLE users_repartition_changes (id BIGINT PRIMARY KEY)");
+                statement.execute("CREATE FUNCTION users_repartition_capture() RETURNS trigger LANGUAGE plpgsql AS $$"
+                        + " BEGIN"
+                        + " INSERT INTO users_repartition_changes (id)"
+                        + " VALUES (CASE WHEN TG_OP = 'DELETE' THEN OLD.id ELSE NEW.id END) ON CONFLICT DO NOTHING;"
+                        + " RETURN NULL;"
+                        + " END $$");
+                statement.execute("CREATE TRIGGER users_repartition_capture AFTER INSERT OR UPDATE OR DELETE ON users"
+                        + " FOR EACH ROW EXECUTE FUNCTION users_repartition_capture()");
+            }
+            return null;
+        });
+    }
+
+    // 复制 id 大于 afterId 的下一批行；批内的邮箱可能与复制后又改过邮箱的旧行冲突，以新行为准，旧行重放时修正
+    public CopiedBatch copyBatch(long afterId, int limit) throws SQLException {
+        return execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(COPY_BATCH_SQL)) {
+                statement.setLong(1, afterId);
+                statement.setInt(2, limit);
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    return new CopiedBatch(rs.getLong(1), rs.getInt(2));
+                }
+            }
+        });
+    }
+
+    // 复制完成后再建二级索引，比逐行维护索引快
+    public void createIndexes() throws SQLException {
+        execute(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE INDEX idx_users_repartition_name ON users_repartition(name)");
+                statement.execute("CREATE INDEX idx_users_repartition_name_trgm ON users_repartition"
+                        + " USING gin (name gin_trgm_ops)");
+            }
+            return null;
+        });
+    }
+
+    // 取出最多 limit 个有变更的 id，按 users 中的当前状态重写新表中的对应行，返回重放的 id 数
+    public int replayChanges(int limit) throws SQLException {
+        return inTransaction(connection -> replayChanges(connection, limit));
+    }
+
+    // 在表锁内重放全部剩余变更后换表，返回最后重放的 id 数；拿不到锁时抛出 SQLState 55P03
+    public long swap(int limit, Duration lockTimeout) throws SQLException {
+        return inTransaction(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET LOCAL lock_timeout = " + lockTimeout.toMillis());
+                statement.execute("LOCK TABLE users, user_emails IN ACCESS EXCLUSIVE MODE");
+                long replayed = 0;
+                int batch;
+                do {
+                    batch = replayChanges(connection, limit);
+                    replayed += batch;
+                } while (batch > 0);
+                int partitions = partitionCount(statement);
+                statement.execute("DROP TRIGGER users_repartition_capture ON users");
+                statement.execute("ALTER SEQUENCE users_id_seq OWNED BY NONE");
+                statement.execute("DROP TABLE users, user_emails");
+                statement.execute("ALTER TABLE users_repartition RENAME TO users");
+                statement.execute("ALTER TABLE user_emails_repartition RENAME TO user_emails");
+                statement.execute("ALTER INDEX users_repartition_pkey RENAME TO users_pkey");
+                statement.execute("ALTER INDEX user_emails_repartition_pkey RENAME TO user_emails_pkey");
+                statement.execute("ALTER INDEX idx_users_repartition_name RENAME TO idx_users_name");
+                statement.execute("ALTER INDEX idx_users_repartition_name_trgm RENAME TO idx_users_name_trgm");
+                for (int i = 0; i < partitions; i++) {
+                    statement.execute(String.format("ALTER TABLE users_repartition_p%d RENAME TO users_p%d", i, i));
+                    statement.execute(String.format("ALTER TABLE user_emails_repartition_p%d RENAME TO user_emails_p%d", i, i));
+                }
+                for (String index : partitionIndexes(statement)) {
+                    statement.execute(String.format("ALTER INDEX %s RENAME TO %s",
+                            index, index.replace("_repartition_p", "_p")));
+                }
+                statement.execute("ALTER SEQUENCE users_id_seq OWNED BY users.id");
+                statement.execute("CREATE TRIGGER users_sync_email AFTER INSERT OR DELETE OR UPDATE OF email ON users"
+                        + " FOR EACH ROW EXECUTE FUNCTION users_sync_email()");
+                statement.execute("DROP TABLE users_repartition_changes");
+                statement.execute("DROP FUNCTION users_repartition_capture()");
+                return replayed;
+            }
+        });
+    }
+
+    // 失败后清理新表与变更记录，users 保持原样
+    public void abort() throws SQLException {
+        inTransaction(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                dropLeftovers(statement);
+            }
+            return null;
+        });
+    }
+
+    private static void dropLeftovers(Statement statement) throws SQLException {
+        statement.execute("DROP TRIGGER IF EXISTS users_repartition_capture ON users");
+        statement.execute("DROP FUNCTION IF EXISTS users_repartition_capture()");
+        statement.execute("DROP TABLE IF EXISTS users_repartition, user_emails_repartition, users_repartition_changes");
+    }
+
+    private static int replayChanges(Connection connection, int limit) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "DELETE FROM users_repartition_changes WHERE id IN"
+                        + " (SELECT id FROM users_repartition_changes LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING id")) {
+            statement.setInt(1, limit);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        }
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Array idArray = connection.createArrayOf("bigint", ids.toArray());
+        // 只删除仍属于这些用户的邮箱，已被后复制的新行占用的邮箱保留
+        update(connection, "DELETE FROM user_emails_repartition e USING users_repartition u"
+                + " WHERE u.id = ANY(?) AND e.email = u.email AND e.user_id = u.id", idArray);
+        update(connection, "DELETE FROM users_repartition WHERE id = ANY(?)", idArray);
+        update(connection, "INSERT INTO users_repartition (id, name, email, created_at, updated_at)"
+                + " SELECT id, name, email, created_at, updated_at FROM users WHERE id = ANY(?)", idArray);
+        update(connection, "INSERT INTO user_emails_repartition (email, user_id)"
+                + " SELECT email, id FROM users WHERE id = ANY(?)"
+                + " ON CONFLICT (email) DO UPDATE SET user_id = EXCLUDED.user_id", idArray);
+        return ids.size();
+    }
+
+    private static void update(Connection connection, String sql, Array ids) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setArray(1, ids);
+            statement.executeUpdate();
+        }
+    }
+
+    private static int partitionCount(Statement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(
+                "SELECT count(*) FROM pg_inherits WHERE inhparent = 'users_repartition'::regclass")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    // 分区上自动命名的索引，如 users_repartition_p0_pkey
+    private static List<String> partitionIndexes(Statement statement) throws SQLException {
+        List<String> indexes = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery("SELECT relname FROM pg_class WHERE relkind = 'i'"
+                + " AND (relname LIKE 'users\\_repartition\\_p%' OR relname LIKE 'user\\_emails\\_repartition\\_p%')")) {
+            while (rs.next()) {
+                indexes.add(rs.getString(1));
+            }
+        }
+        return indexes;
+    }
+
+    // 建索引与大批量复制耗时随数据量增长，不受连接默认的 statement_timeout 限制
+    private <T> T execute(ConnectionCallback<T> callback) throws SQLException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET statement_timeout = 0");
+            }
+            return callback.doInConnection(connection);
+        } finally {
+            resetStatementTimeout(connection);
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    // 恢复为建立连接时的设置；连接已不可用时由连接池处理
+    private static void resetStatementTimeout(Connection connection) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("RESET statement_timeout");
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private <T> T inTransaction(ConnectionCallback<T> callback) throws SQLException {
+        return execute(connection -> {
+            connection.setAutoCommit(false);
+            try {
+                T result = callback.doInConnection(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface ConnectionCallback<T> {
+        T doInConnection(Connection connection) throws SQLException;
+    }
+
+    // lastId 为本批最大的 id，rows 为 0 时表示已复制完
+    @Data
+    public static class CopiedBatch {
+        private final long lastId;
+        private final int rows;
+    }
+}
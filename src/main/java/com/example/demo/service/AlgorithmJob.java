@@ -0,0 +1,107 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+// 一次异步计算。状态只在持有对象锁时变更，结束时完成 completion 以唤醒长轮询
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AlgorithmJob {
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED
+    }
+
+    public enum Priority {
+        HIGH, NORMAL, LOW
+    }
+
+    private final String id;
+
+    private final String type;
+
+    private final Priority priority;
+
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private volatile Status status = Status.QUEUED;
+
+    private volatile LocalDateTime startedAt;
+
+    private volatile LocalDateTime finishedAt;
+
+    private volatile Object result;
+
+    private volatile String error;
+
+    @JsonIgnore
+    private final Supplier<Object> computation;
+
+    @JsonIgnore
+    private final CompletableFuture<AlgorithmJob> completion = new CompletableFuture<>();
+
+    // 结果中的大对象（数组、大整数）由 AlgorithmJobService 直接估算，其他结果类型实现此接口给出估算值
+    public interface SizedResult {
+        long estimatedBytes();
+    }
+
+    AlgorithmJob(String id, String type, Priority priority, Supplier<Object> computation) {
+        this.id = id;
+        this.type = type;
+        this.priority = priority;
+        this.computation = computation;
+    }
+
+    @JsonIgnore
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    // 已被取消时返回 false
+    synchronized boolean start() {
+        if (status != Status.QUEUED) {
+            return false;
+        }
+        status = Status.RUNNING;
+        startedAt = LocalDateTime.now();
+        return true;
+    }
+
+    synchronized void succeed(Object value) {
+        if (status == Status.RUNNING) {
+            result = value;
+            finish(Status.SUCCEEDED);
+        }
+    }
+
+    synchronized void fail(Throwable e) {
+        if (status == Status.RUNNING) {
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            finish(Status.FAILED);
+        }
+    }
+
+    // 只能取消排队中的任务：引擎中的计算循环不响应中断，运行中的任务无论如何都会算完并占用线程，
+    // 因此抛出 IllegalStateException 而不是标记为已取消；已结束时返回 false
+    synchronized boolean cancel() {
+        if (isDone()) {
+            return false;
+        }
+        if (status == Status.RUNNING) {
+            throw new IllegalStateException("Job is already running");
+        }
+        finish(Status.CANCELLED);
+        return true;
+    }
+
+    private void finish(Status finalStatus) {
+        status = finalStatus;
+        finishedAt = LocalDateTime.now();
+        completion.complete(this);
+    }
+}
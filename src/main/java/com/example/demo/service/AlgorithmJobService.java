@@ -0,0 +1,177 @@
+package com.example.demo.service;
+
+import com.example.demo.config.AlgorithmProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Data;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// 长耗时算法的异步执行：固定大小线程池 + 按优先级排序的有界队列（同优先级先进先出）。
+// 未结束的任务保存在 active 中，结束后移入带 TTL 的结果缓存。
+@Service
+public class AlgorithmJobService {
+
+    private final int queueCapacity;
+
+    private final Duration maxWait;
+
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Map<String, AlgorithmJob> active = new ConcurrentHashMap<>();
+
+    private final Cache<String, AlgorithmJob> finished;
+
+    public AlgorithmJobService(AlgorithmProperties properties) {
+        AlgorithmProperties.Jobs config = properties.getJobs();
+        this.queueCapacity = config.getQueueCapacity();
+        this.maxWait = config.getMaxWait();
+        // 权重以 KB 计，避免大结果的字节数超出 int；每个条目至少 1，条目数也随之受限
+        this.finished = Caffeine.newBuilder()
+                .maximumWeight(Math.max(1, config.getMaxRetainedSize().toBytes() >> 10))
+                .weigher((String id, AlgorithmJob job) -> (int) Math.min(Integer.MAX_VALUE, (resultBytes(job.getResult()) >> 10) + 1))
+                .expireAfterWrite(config.getResultTtl())
+                .build();
+        // PriorityBlockingQueue 本身无界，容量由 queued 计数控制
+        this.executor = new ThreadPoolExecutor(config.getThreads(), config.getThreads(),
+                0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(), threadFactory());
+    }
+
+    // 队列已满时抛出 RejectedExecutionException
+    public AlgorithmJob submit(String type, AlgorithmJob.Priority priority, Supplier<Object> computation) {
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            throw new RejectedExecutionException("Job queue is full");
+        }
+        AlgorithmJob job = new AlgorithmJob(UUID.randomUUID().toString(), type, priority, computation);
+        active.put(job.getId(), job);
+        job.getCompletion().whenComplete((done, e) -> {
+            finished.put(done.getId(), done);
+            active.remove(done.getId());
+        });
+        try {
+            executor.execute(new JobTask(job, sequence.getAndIncrement()));
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            active.remove(job.getId());
+            throw e;
+        }
+        return job;
+    }
+
+    public Optional<AlgorithmJob> getJob(String id) {
+        AlgorithmJob job = active.get(id);
+        return job != null ? Optional.of(job) : Optional.ofNullable(finished.getIfPresent(id));
+    }
+
+    // 任务不存在或已结束时返回 false，正在运行时抛出 IllegalStateException
+    public boolean cancel(String id) {
+        AlgorithmJob job = active.get(id);
+        if (job == null || !job.cancel()) {
+            return false;
+        }
+        // 还在队列中的任务直接移除，不占用线程
+        if (job.getStartedAt() == null && executor.getQueue().removeIf(task -> ((JobTask) task).job == job)) {
+            queued.decrementAndGet();
+        }
+        return true;
+    }
+
+    // 长轮询的等待时间不超过 app.algorithms.jobs.max-wait
+    public Duration clampWait(Duration requested) {
+        if (requested.isNegative()) {
+            return Duration.ZERO;
+        }
+        return requested.compareTo(maxWait) > 0 ? maxWait : requested;
+    }
+
+    public JobStats stats() {
+        return new JobStats(queued.get(), executor.getActiveCount(), queueCapacity, finished.estimatedSize());
+    }
+
+    // 结果占用的字节数估算：数组与大整数按元素计，其余按对象头计
+    static long resultBytes(Object result) {
+        if (result instanceof int[]) {
+            return 16 + 4L * ((int[]) result).length;
+        }
+        if (result instanceof BigInteger) {
+            return 56 + ((BigInteger) result).bitLength() / 8;
+        }
+        if (result instanceof AlgorithmJob.SizedResult) {
+            return ((AlgorithmJob.SizedResult) result).estimatedBytes();
+        }
+        return 64;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "algorithm-job-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private class JobTask implements Runnable, Comparable<JobTask> {
+
+        private final AlgorithmJob job;
+
+        private final long sequence;
+
+        JobTask(AlgorithmJob job, long sequence) {
+            this.job = job;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            queued.decrementAndGet();
+            if (!job.start()) {
+                return;
+            }
+            try {
+                job.succeed(job.getComputation().get());
+            } catch (RuntimeException | Error e) {
+                job.fail(e);
+            }
+        }
+
+        @Override
+        public int compareTo(JobTask other) {
+            int byPriority = job.getPriority().compareTo(other.job.getPriority());
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    @Data
+    public static class JobStats {
+        private final int queued;
+        private final int running;
+        private final int queueCapacity;
+        private final long retainedResults;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// 算法调用耗时（algorithm.compute），按算法、排序策略和输入规模（10 的幂次分桶）打标签，
+// 用于区分同一接口在不同规模输入下的耗时分布
+@Component
+public class AlgorithmMetrics {
+
+    static final String METRIC_NAME = "algorithm.compute";
+
+    static final String NO_STRATEGY = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    public AlgorithmMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T time(String algorithm, long size, Supplier<T> computation) {
+        long start = System.nanoTime();
+        try {
+            return computation.get();
+        } finally {
+            record(algorithm, NO_STRATEGY, size, System.nanoTime() - start);
+        }
+    }
+
+    public void time(String algorithm, long size, Runnable computation) {
+        long start = System.nanoTime();
+        try {
+            computation.run();
+        } finally {
+            record(algorithm, NO_STRATEGY, size, System.nanoTime() - start);
+        }
+    }
+
+    public void record(String algorithm, String strategy, long size, long nanos) {
+        Timer.builder(METRIC_NAME)
+                .description("Algorithm computation time by input size")
+                .tag("algorithm", algorithm)
+                .tag("strategy", strategy)
+                .tag("size", sizeBucket(size))
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // 0、1e0（1~9）、1e1（10~99）……，标签取值个数有限
+    static String sizeBucket(long size) {
+        if (size <= 0) {
+            return "0";
+        }
+        int exponent = 0;
+        for (long n = size; n >= 10; n /= 10) {
+            exponent++;
+        }
+        return "1e" + exponent;
+    }
+}
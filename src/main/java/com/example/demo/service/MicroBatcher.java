@@ -0,0 +1,87 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+// 把一个短时间窗口内到达的单键查询合并为一次批量查询，不额外占用线程：
+// 第一个到达的调用方等待一个窗口后执行查询，窗口内到达的调用方只等待结果；
+// 批次达到上限时由使批次满员的调用方立即执行。
+public class MicroBatcher<K, V> {
+
+    private final Function<List<K>, Map<K, V>> batchLoader;
+
+    private final Object lock = new Object();
+
+    // 正在收集中的批次，执行前从这里摘下，保证每个批次只执行一次
+    private Map<K, CompletableFuture<V>> pending;
+
+    private final LongAdder batches = new LongAdder();
+
+    private final LongAdder batchedKeys = new LongAdder();
+
+    // batchLoader 返回的 Map 中没有的键，结果为 null
+    public MicroBatcher(Function<List<K>, Map<K, V>> batchLoader) {
+        this.batchLoader = batchLoader;
+    }
+
+    public V load(K key, Duration window, int maxBatchSize) {
+        Map<K, CompletableFuture<V>> batch;
+        CompletableFuture<V> future;
+        boolean leader;
+        boolean full;
+        synchronized (lock) {
+            leader = pending == null;
+            if (leader) {
+                pending = new HashMap<>();
+            }
+            batch = pending;
+            future = batch.computeIfAbsent(key, k -> new CompletableFuture<>());
+            full = batch.size() >= maxBatchSize;
+            if (full) {
+                pending = null;
+            }
+        }
+        if (full) {
+            execute(batch);
+        } else if (leader) {
+            LockSupport.parkNanos(window.toNanos());
+            boolean detached;
+            synchronized (lock) {
+                detached = pending == batch;
+                if (detached) {
+                    pending = null;
+                }
+            }
+            if (detached) {
+                execute(batch);
+            }
+        }
+        return SingleFlight.await(future);
+    }
+
+    public long batchCount() {
+        return batches.sum();
+    }
+
+    public long batchedKeyCount() {
+        return batchedKeys.sum();
+    }
+
+    private void execute(Map<K, CompletableFuture<V>> batch) {
+        batches.increment();
+        batchedKeys.add(batch.size());
+        try {
+            Map<K, V> values = batchLoader.apply(new ArrayList<>(batch.keySet()));
+            batch.forEach((key, future) -> future.complete(values.get(key)));
+        } catch (RuntimeException | Error e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.demo.service;
+
+import com.example.demo.config.UserProperties;
+import com.example.demo.entity.User;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.Data;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// 用户读缓存：按 id 存放用户条目，邮箱索引只保存 邮箱 -> id 的映射，两个索引指向同一份数据。
+// 使用 Caffeine（W-TinyLFU）按容量和 TTL 淘汰，不存在的用户以 Optional.empty() 做短时负缓存。
+// id 索引存放加载中的 future：数据库查询在调用方线程、缓存的锁之外执行，相同 id 的并发查询等待同一次加载，
+// 加载期间被失效的条目在加载完成后不会写回。
+@Component
+public class UserCache {
+
+    private final boolean enabled;
+
+    private final AsyncCache<Long, Optional<User>> byId;
+
+    private final Cache<String, Optional<Long>> idByEmail;
+
+    private final LongAdder coalescedById = new LongAdder();
+
+    // 每次失效先递增再删除条目。按邮箱加载的结果在 compute 中比对加载前的值，加载期间发生过失效就不写回，
+    // 避免把更新或删除之前读到的旧数据写回缓存；加载前不知道对应的 id，因此不区分键
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public UserCache(UserProperties properties) {
+        UserProperties.Cache config = properties.getCache();
+        this.enabled = config.isEnabled();
+        long ttlNanos = config.getTtl().toNanos();
+        long negativeTtlNanos = config.getNegativeTtl().toNanos();
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfter(new OptionalExpiry<Long, User>(ttlNanos, negativeTtlNanos))
+                .recordStats()
+                .buildAsync();
+        this.idByEmail = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfter(new OptionalExpiry<String, Long>(ttlNanos, negativeTtlNanos))
+                .recordStats()
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // 映射函数只登记一个未完成的 future，由登记成功的调用方执行 loader（loader 可以等待 micro-batch 窗口）
+    public Optional<User> getById(Long id, Function<Long, User> loader) {
+        if (!enabled) {
+            return Optional.ofNullable(loader.apply(id));
+        }
+        CompletableFuture<Optional<User>> created = new CompletableFuture<>();
+        CompletableFuture<Optional<User>> future = byId.get(id, (key, executor) -> created);
+        if (future != created) {
+            if (!future.isDone()) {
+                coalescedById.increment();
+            }
+            return SingleFlight.await(future);
+        }
+        try {
+            Optional<User> loaded = Optional.ofNullable(loader.apply(id));
+            created.complete(loaded);
+            return loaded;
+        } catch (RuntimeException | Error e) {
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // 等待了其他调用方正在进行的同一 id 加载、未单独访问数据库的次数
+    public long coalescedByIdCount() {
+        return coalescedById.sum();
+    }
+
+    public Optional<User> getByEmail(String email, Function<String, User> loader) {
+        if (!enabled) {
+            return Optional.ofNullable(loader.apply(email));
+        }
+        Optional<Long> cachedId = idByEmail.getIfPresent(email);
+        if (cachedId != null) {
+            if (cachedId.isEmpty()) {
+                return Optional.empty();
+            }
+            // 邮箱索引可能指向已被修改的条目，校验邮箱一致后才算命中
+            Optional<User> cached = byId.synchronous().getIfPresent(cachedId.get());
+            if (cached != null && cached.isPresent() && email.equals(cached.get().getEmail())) {
+                return cached;
+            }
+        }
+        long generation = invalidations.get();
+        Optional<User> loaded = Optional.ofNullable(loader.apply(email));
+        writeBack(email, loaded, generation);
+        return loaded;
+    }
+
+    // 批量按 id 查询：已缓存或加载中的条目直接复用，未命中的 id 交给 loader 一次性加载，查不到的 id 记为负缓存
+    public Map<Long, Optional<User>> getAllById(Collection<Long> ids, Function<Set<Long>, Map<Long, User>> loader) {
+        Function<Iterable<? extends Long>, Map<Long, Optional<User>>> loadAll = keys -> {
+            Set<Long> missing = new LinkedHashSet<>();
+            keys.forEach(missing::add);
+            Map<Long, User> found = loader.apply(missing);
+            Map<Long, Optional<User>> loaded = new HashMap<>();
+            for (Long key : missing) {
+                loaded.put(key, Optional.ofNullable(found.get(key)));
+            }
+            return loaded;
+        };
+        if (!enabled) {
+            return loadAll.apply(ids);
+        }
+        return SingleFlight.await(byId.getAll(ids,
+                (keys, executor) -> CompletableFuture.completedFuture(loadAll.apply(keys))));
+    }
+
+    // 批量按邮箱查询，命中规则与 getByEmail 相同，未命中的邮箱一次性加载后回填两个索引
+    public Map<String, Optional<User>> getAllByEmail(Collection<String> emails, Function<Set<String>, Map<String, User>> loader) {
+        Map<String, Optional<User>> result = new HashMap<>();
+        Set<String> misses = new LinkedHashSet<>();
+        for (String email : emails) {
+            if (result.containsKey(email) || misses.contains(email)) {
+                continue;
+            }
+            Optional<Long> cachedId = enabled ? idByEmail.getIfPresent(email) : null;
+            if (cachedId != null && cachedId.isEmpty()) {
+                result.put(email, Optional.empty());
+                continue;
+            }
+            if (cachedId != null) {
+                Optional<User> cached = byId.synchronous().getIfPresent(cachedId.get());
+                if (cached != null && cached.isPresent() && email.equals(cached.get().getEmail())) {
+                    result.put(email, cached);
+                    continue;
+                }
+            }
+            misses.add(email);
+        }
+        if (misses.isEmpty()) {
+            return result;
+        }
+        long generation = invalidations.get();
+        Map<String, User> found = loader.apply(misses);
+        for (String email : misses) {
+            Optional<User> loaded = Optional.ofNullable(found.get(email));
+            if (enabled) {
+                writeBack(email, loaded, generation);
+            }
+            result.put(email, loaded);
+        }
+        return result;
+    }
+
+    // compute 与失效时的删除互斥：检查通过后发生的失效一定在写入之后删除条目
+    private void writeBack(String email, Optional<User> loaded, long generation) {
+        loaded.ifPresent(user -> byId.asMap().compute(user.getId(), (id, current) ->
+                invalidations.get() == generation ? CompletableFuture.completedFuture(loaded) : current));
+        idByEmail.asMap().compute(email, (key, current) ->
+                invalidations.get() == generation ? loaded.map(User::getId) : current);
+    }
+
+    public void invalidate(Long id) {
+        invalidations.incrementAndGet();
+        byId.synchronous().invalidate(id);
+    }
+
+    public void invalidateEmail(String email) {
+        invalidations.incrementAndGet();
+        idByEmail.invalidate(email);
+    }
+
+    public void invalidate(User user) {
+        invalidate(user.getId());
+        invalidateEmail(user.getEmail());
+    }
+
+    // 批量导入后无法逐个定位受影响的键，直接清空
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        byId.synchronous().invalidateAll();
+        idByEmail.invalidateAll();
+    }
+
+    public UserCacheStats stats() {
+        return new UserCacheStats(
+                CacheMetrics.of(byId.synchronous().stats(), byId.synchronous().estimatedSize()),
+                CacheMetrics.of(idByEmail.stats(), idByEmail.estimatedSize()));
+    }
+
+    // 命中的用户使用正常 TTL，负缓存使用较短的 TTL
+    private static class OptionalExpiry<K, V> implements Expiry<K, Optional<V>> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        OptionalExpiry(long ttlNanos, long negativeTtlNanos) {
+            this.ttlNanos = ttlNanos;
+            this.negativeTtlNanos = negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(K key, Optional<V> value, long currentTime) {
+            return value.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(K key, Optional<V> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(K key, Optional<V> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    @Data
+    public static class UserCacheStats {
+        private final CacheMetrics byId;
+        private final CacheMetrics byEmail;
+    }
+
+    @Data
+    public static class CacheMetrics {
+        private final long hitCount;
+        private final long missCount;
+        private final double hitRate;
+        private final long evictionCount;
+        private final long estimatedSize;
+
+        static CacheMetrics of(CacheStats stats, long estimatedSize) {
+            return new CacheMetrics(stats.hitCount(), stats.missCount(), stats.hitRate(),
+                    stats.evictionCount(), estimatedSize);
+        }
+    }
+}
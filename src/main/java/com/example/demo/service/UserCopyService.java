@@ -0,0 +1,244 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.User;
+import com.example.demo.mapper.UserCopyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class UserCopyService {
+
+    // 只保留前若干条行错误，避免错误列表随输入无限增长
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private final UserCopyRepository userCopyRepository;
+
+    private final UserCache userCache;
+
+    private final UserNameIndexLoader userNameIndexLoader;
+
+    private final ObjectMapper objectMapper;
+
+    // CSV 需要表头，包含 name、email 列，created_at、updated_at 可选
+    public ImportResult importCsv(InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            throw new RuntimeException("CSV header is required");
+        }
+        Map<String, Integer> header = new HashMap<>();
+        List<String> columns = parseCsvLine(headerLine);
+        for (int i = 0; i < columns.size(); i++) {
+            header.put(columns.get(i).trim().toLowerCase(), i);
+        }
+        if (!header.containsKey("name") || !header.containsKey("email")) {
+            throw new RuntimeException("CSV header must contain name and email");
+        }
+
+        ImportResult result = new ImportResult();
+        copy(out -> {
+            String line;
+            long lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) {
+                    continue;
+                }
+                List<String> fields = parseCsvLine(line);
+                User user = new User();
+                user.setName(field(fields, header.get("name")));
+                user.setEmail(field(fields, header.get("email")));
+                try {
+                    user.setCreatedAt(parseTimestamp(field(fields, header.get("created_at"))));
+                    user.setUpdatedAt(parseTimestamp(field(fields, header.get("updated_at"))));
+                } catch (DateTimeParseException e) {
+                    result.reject(lineNumber, "Invalid timestamp: " + e.getParsedString());
+                    continue;
+                }
+                writeRow(out, user, lineNumber, result);
+            }
+        }, result);
+        return result;
+    }
+
+    // NDJSON 每行一个 User 对象，逐行解析，无法解析的行与 CSV 的无效行一样记为该行的错误
+    public ImportResult importNdjson(InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        ObjectReader userReader = objectMapper.readerFor(User.class);
+        ImportResult result = new ImportResult();
+        copy(out -> {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                User user;
+                try {
+                    user = userReader.readValue(line);
+                } catch (JsonProcessingException e) {
+                    result.reject(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+                    continue;
+                }
+                writeRow(out, user, lineNumber, result);
+            }
+        }, result);
+        return result;
+    }
+
+    public long exportCsv(OutputStream output) throws IOException {
+        try {
+            return userCopyRepository.copyOut(output);
+        } catch (SQLException e) {
+            throw new RuntimeException("Export failed: " + e.getMessage(), e);
+        }
+    }
+
+    private void copy(RowSource source, ImportResult result) throws IOException {
+        try {
+            long imported = userCopyRepository.copyIn(out -> {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                source.writeRows(writer);
+                writer.flush();
+            });
+            result.setImported(imported);
+        } catch (SQLException e) {
+            // COPY 是单条语句，任意一行违反约束（如邮箱重复）都会使整批回滚
+            throw new RuntimeException("Import failed: " + e.getMessage(), e);
+        }
+        userCache.invalidateAll();
+        // COPY 不返回生成的 id，导入后整体重建姓名索引
+        userNameIndexLoader.rebuildAsync();
+    }
+
+    private void writeRow(Writer out, User user, long lineNumber, ImportResult result) throws IOException {
+        String error = validate(user);
+        if (error != null) {
+            result.reject(lineNumber, error);
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime createdAt = user.getCreatedAt() != null ? user.getCreatedAt() : now;
+        LocalDateTime updatedAt = user.getUpdatedAt() != null ? user.getUpdatedAt() : createdAt;
+        out.write(csvField(user.getName()));
+        out.write(',');
+        out.write(csvField(user.getEmail()));
+        out.write(',');
+        out.write(createdAt.toString());
+        out.write(',');
+        out.write(updatedAt.toString());
+        out.write('\n');
+    }
+
+    static String validate(User user) {
+        if (user == null || user.getName() == null || user.getName().isBlank()) {
+            return "Name is required";
+        }
+        if (user.getName().length() > 100) {
+            return "Name is longer than 100 characters";
+        }
+        if (user.getEmail() == null || user.getEmail().isBlank()) {
+            return "Email is required";
+        }
+        if (user.getEmail().length() > 255 || user.getEmail().indexOf('@') < 1) {
+            return "Invalid email: " + user.getEmail();
+        }
+        return null;
+    }
+
+    // 解析一行 CSV，支持双引号包裹字段及 "" 转义（不支持字段内换行）
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    static String csvField(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String field(List<String> fields, Integer index) {
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    private static LocalDateTime parseTimestamp(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return LocalDateTime.parse(value.trim().replace(' ', 'T'));
+    }
+
+    @FunctionalInterface
+    private interface RowSource {
+        void writeRows(Writer out) throws IOException;
+    }
+
+    @Data
+    public static class ImportResult {
+        private long imported;
+        private long rejected;
+        private final List<RowError> errors = new ArrayList<>();
+
+        void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(line, message));
+            }
+        }
+    }
+
+    @Data
+    public static class RowError {
+        private final long line;
+        private final String message;
+    }
+}
@@ -0,0 +1,360 @@
+package com.example.demo.service;
+
+import com.example.demo.config.UserProperties;
+import com.example.demo.entity.User;
+import lombok.Data;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// 进程内的姓名子串索引：每个用户占一个槽位，按单字符和相邻双字符建立倒排表（int 数组），
+// 查询时求倒排表交集后再用 contains 校验，返回 id 最大的前 K 个结果（与 ORDER BY id DESC 一致）。
+@Component
+public class UserNameIndex {
+
+    private final boolean enabled;
+
+    private final int maxResults;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Snapshot snapshot = new Snapshot();
+
+    private volatile boolean ready;
+
+    // 重建期间发生的写操作，重建完成后重放
+    private List<User> pendingWrites;
+
+    private List<Long> pendingDeletes;
+
+    public UserNameIndex(UserProperties properties) {
+        this.enabled = properties.getNameIndex().isEnabled();
+        this.maxResults = properties.getNameIndex().getMaxResults();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // 开始重建：之后的写操作会同时记录下来，在 finishRebuild 时重放到新索引上
+    public Builder beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingWrites = new ArrayList<>();
+            pendingDeletes = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return new Builder();
+    }
+
+    public void finishRebuild(Builder builder) {
+        lock.writeLock().lock();
+        try {
+            Snapshot rebuilt = builder.snapshot;
+            for (User user : pendingWrites) {
+                rebuilt.put(user);
+            }
+            for (Long id : pendingDeletes) {
+                rebuilt.remove(id);
+            }
+            snapshot = rebuilt;
+            pendingWrites = null;
+            pendingDeletes = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void abortRebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingWrites = null;
+            pendingDeletes = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(User user) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            snapshot.put(user);
+            if (pendingWrites != null) {
+                pendingWrites.add(user);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            snapshot.remove(id);
+            if (pendingDeletes != null) {
+                pendingDeletes.add(id);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<User> search(String query) {
+        return search(query, maxResults);
+    }
+
+    // limit 超过 max-results 时按 max-results 截断
+    public List<User> search(String query, int limit) {
+        lock.readLock().lock();
+        try {
+            return snapshot.search(query == null ? "" : query, Math.min(limit, maxResults));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public IndexStats stats() {
+        lock.readLock().lock();
+        try {
+            return snapshot.stats(ready);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 删除和更新只会留下墓碑槽位，墓碑过半时重建倒排表
+    private void compactIfNeeded() {
+        if (snapshot.deadSlots > 1024 && snapshot.deadSlots > snapshot.liveUsers()) {
+            Snapshot compacted = new Snapshot();
+            for (int slot = 0; slot < snapshot.size; slot++) {
+                if (snapshot.users[slot] != null) {
+                    compacted.put(snapshot.users[slot]);
+                }
+            }
+            snapshot = compacted;
+        }
+    }
+
+    public static class Builder {
+
+        private final Snapshot snapshot = new Snapshot();
+
+        public void add(User user) {
+            snapshot.put(user);
+        }
+    }
+
+    private static class Snapshot {
+
+        private User[] users = new User[1024];
+
+        private int size;
+
+        private int deadSlots;
+
+        private final Map<Long, Integer> slotById = new HashMap<>();
+
+        private final Map<Character, IntList> unigrams = new HashMap<>();
+
+        private final Map<Integer, IntList> bigrams = new HashMap<>();
+
+        int liveUsers() {
+            return slotById.size();
+        }
+
+        void put(User user) {
+            if (user == null || user.getId() == null) {
+                return;
+            }
+            remove(user.getId());
+            if (size == users.length) {
+                users = Arrays.copyOf(users, size * 2);
+            }
+            int slot = size++;
+            users[slot] = user;
+            slotById.put(user.getId(), slot);
+            String name = user.getName() == null ? "" : user.getName();
+            for (int i = 0; i < name.length(); i++) {
+                unigrams.computeIfAbsent(name.charAt(i), c -> new IntList()).addUnique(slot);
+                if (i + 1 < name.length()) {
+                    bigrams.computeIfAbsent(bigram(name, i), k -> new IntList()).addUnique(slot);
+                }
+            }
+        }
+
+        void remove(Long id) {
+            Integer slot = slotById.remove(id);
+            if (slot != null) {
+                users[slot] = null;
+                deadSlots++;
+            }
+        }
+
+        List<User> search(String query, int limit) {
+            PriorityQueue<User> top = new PriorityQueue<>(Comparator.comparing(User::getId));
+            if (query.isEmpty()) {
+                for (int slot = 0; slot < size; slot++) {
+                    offer(top, users[slot], limit);
+                }
+                return drain(top);
+            }
+            IntList candidates = query.length() == 1
+                    ? unigrams.get(query.charAt(0))
+                    : intersectBigrams(query);
+            if (candidates == null) {
+                return List.of();
+            }
+            for (int i = 0; i < candidates.size; i++) {
+                User user = users[candidates.values[i]];
+                if (user != null && user.getName() != null && user.getName().contains(query)) {
+                    offer(top, user, limit);
+                }
+            }
+            return drain(top);
+        }
+
+        private IntList intersectBigrams(String query) {
+            IntList result = null;
+            for (int i = 0; i + 1 < query.length(); i++) {
+                IntList postings = bigrams.get(bigram(query, i));
+                if (postings == null) {
+                    return null;
+                }
+                result = result == null ? postings : result.intersect(postings);
+                if (result.size == 0) {
+                    return null;
+                }
+            }
+            return result;
+        }
+
+        private static void offer(PriorityQueue<User> top, User user, int limit) {
+            if (user == null) {
+                return;
+            }
+            if (top.size() < limit) {
+                top.add(user);
+            } else if (top.peek().getId() < user.getId()) {
+                top.poll();
+                top.add(user);
+            }
+        }
+
+        private static List<User> drain(PriorityQueue<User> top) {
+            User[] result = new User[top.size()];
+            for (int i = result.length - 1; i >= 0; i--) {
+                result[i] = top.poll();
+            }
+            return Arrays.asList(result);
+        }
+
+        private static int bigram(String value, int index) {
+            return (value.charAt(index) << 16) | value.charAt(index + 1);
+        }
+
+        // 内存估算：对象头 16 字节、引用 4 字节（压缩指针）、HashMap 节点 32 字节
+        IndexStats stats(boolean ready) {
+            long postings = 0;
+            long postingBytes = 0;
+            for (IntList list : unigrams.values()) {
+                postings += list.size;
+                postingBytes += list.footprint() + 32 + 16;
+            }
+            for (IntList list : bigrams.values()) {
+                postings += list.size;
+                postingBytes += list.footprint() + 32 + 16;
+            }
+            long userBytes = 16 + 4L * users.length;
+            for (int slot = 0; slot < size; slot++) {
+                User user = users[slot];
+                if (user != null) {
+                    userBytes += 40 + stringFootprint(user.getName()) + stringFootprint(user.getEmail())
+                            + (user.getCreatedAt() != null ? 72 : 0) + (user.getUpdatedAt() != null ? 72 : 0);
+                }
+            }
+            long idMapBytes = slotById.size() * (32L + 16 + 16);
+            long totalBytes = postingBytes + userBytes + idMapBytes;
+            int live = liveUsers();
+            return new IndexStats(ready, live, deadSlots, unigrams.size() + bigrams.size(), postings,
+                    totalBytes, live == 0 ? 0 : totalBytes / live);
+        }
+
+        private static long stringFootprint(String value) {
+            return value == null ? 0 : 24 + 16 + 2L * value.length();
+        }
+    }
+
+    // 升序的 int 倒排表
+    private static class IntList {
+
+        private int[] values = new int[4];
+
+        private int size;
+
+        void addUnique(int value) {
+            if (size > 0 && values[size - 1] == value) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size + (size >> 1) + 1);
+            }
+            values[size++] = value;
+        }
+
+        IntList intersect(IntList other) {
+            IntList result = new IntList();
+            result.values = new int[Math.max(1, Math.min(size, other.size))];
+            int i = 0;
+            int j = 0;
+            while (i < size && j < other.size) {
+                if (values[i] < other.values[j]) {
+                    i++;
+                } else if (values[i] > other.values[j]) {
+                    j++;
+                } else {
+                    result.values[result.size++] = values[i];
+                    i++;
+                    j++;
+                }
+            }
+            return result;
+        }
+
+        long footprint() {
+            return 16 + 16 + 4L * values.length;
+        }
+    }
+
+    @Data
+    public static class IndexStats {
+        private final boolean ready;
+        private final int users;
+        private final int deadSlots;
+        private final int grams;
+        private final long postings;
+        private final long estimatedBytes;
+        private final long bytesPerUser;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// 启动完成后在后台线程中流式读取全部用户构建姓名索引，构建完成前搜索仍走数据库
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserNameIndexLoader {
+
+    private final UserNameIndex userNameIndex;
+
+    private final UserService userService;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // 构建过程中再次请求重建时，当前构建结束后再执行一次
+    private final AtomicBoolean rerun = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuildAsync();
+    }
+
+    public void rebuildAsync() {
+        if (!userNameIndex.isEnabled()) {
+            return;
+        }
+        rerun.set(true);
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(this::rebuildLoop, "user-name-index-loader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void rebuildLoop() {
+        do {
+            try {
+                while (rerun.getAndSet(false)) {
+                    rebuild();
+                }
+            } finally {
+                running.set(false);
+            }
+            // 清除 running 之前到达的请求没能启动新线程，由当前线程接着执行
+        } while (rerun.get() && running.compareAndSet(false, true));
+    }
+
+    void rebuild() {
+        long start = System.nanoTime();
+        UserNameIndex.Builder builder = userNameIndex.beginRebuild();
+        try {
+            userService.streamAllUsers(builder::add);
+            userNameIndex.finishRebuild(builder);
+            UserNameIndex.IndexStats stats = userNameIndex.stats();
+            log.info("User name index built: {} users, {} bytes ({} bytes/user) in {} ms",
+                    stats.getUsers(), stats.getEstimatedBytes(), stats.getBytesPerUser(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            userNameIndex.abortRebuild();
+            log.warn("User name index build failed", e);
+        }
+    }
+}
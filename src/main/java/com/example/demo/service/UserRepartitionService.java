@@ -0,0 +1,166 @@
+package com.example.demo.service;
+
+import com.example.demo.config.UserProperties;
+import com.example.demo.mapper.UserPartitionRepository;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// 在后台线程中把 users / user_emails 调整为新的哈希分区数。复制期间读写照常进行，
+// 只有最后的换表需要短暂的排他锁；拿不到锁时重放变更后重试，仍失败则清理新表，原表不受影响。
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserRepartitionService {
+
+    public static final int MAX_PARTITIONS = 1024;
+
+    private final UserPartitionRepository userPartitionRepository;
+
+    private final UserProperties userProperties;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final LongAdder copiedRows = new LongAdder();
+
+    private final LongAdder replayedChanges = new LongAdder();
+
+    private volatile State state = State.IDLE;
+
+    private volatile Phase phase;
+
+    private volatile int partitions;
+
+    private volatile long estimatedRows;
+
+    private volatile LocalDateTime startedAt;
+
+    private volatile LocalDateTime finishedAt;
+
+    private volatile String error;
+
+    // 分区数不合法时抛出 IllegalArgumentException，已有任务在执行时抛出 IllegalStateException
+    public RepartitionStatus start(int partitions) {
+        if (partitions < 1 || partitions > MAX_PARTITIONS) {
+            throw new IllegalArgumentException("Partitions must be between 1 and " + MAX_PARTITIONS);
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Re-partitioning is already running");
+        }
+        this.partitions = partitions;
+        copiedRows.reset();
+        replayedChanges.reset();
+        estimatedRows = 0;
+        error = null;
+        finishedAt = null;
+        startedAt = LocalDateTime.now();
+        phase = Phase.PREPARING;
+        state = State.RUNNING;
+        Thread thread = new Thread(() -> run(partitions), "user-repartition");
+        thread.setDaemon(true);
+        thread.start();
+        return status();
+    }
+
+    public RepartitionStatus status() {
+        return new RepartitionStatus(state, phase, partitions, estimatedRows, copiedRows.sum(),
+                replayedChanges.sum(), startedAt, finishedAt, error);
+    }
+
+    void run(int partitions) {
+        UserProperties.Repartition config = userProperties.getRepartition();
+        int batchSize = Math.max(1, config.getBatchSize());
+        try {
+            estimatedRows = userPartitionRepository.estimateRows();
+            userPartitionRepository.prepare(partitions);
+
+            phase = Phase.COPYING;
+            long afterId = 0;
+            UserPartitionRepository.CopiedBatch batch;
+            while ((batch = userPartitionRepository.copyBatch(afterId, batchSize)).getRows() > 0) {
+                copiedRows.add(batch.getRows());
+                afterId = batch.getLastId();
+            }
+
+            phase = Phase.INDEXING;
+            userPartitionRepository.createIndexes();
+
+            // 锁外先把复制期间积累的变更追平，缩短持锁时间
+            phase = Phase.CATCHING_UP;
+            replayPendingChanges(batchSize);
+
+            phase = Phase.SWAPPING;
+            swap(batchSize, config);
+            state = State.COMPLETED;
+            log.info("Users re-partitioned into {} partitions: {} rows copied, {} changes replayed",
+                    partitions, copiedRows.sum(), replayedChanges.sum());
+        } catch (SQLException | RuntimeException e) {
+            error = e.getMessage();
+            state = State.FAILED;
+            log.warn("User re-partitioning failed in phase {}", phase, e);
+            try {
+                userPartitionRepository.abort();
+            } catch (SQLException | RuntimeException cleanup) {
+                log.warn("Failed to clean up re-partitioning tables", cleanup);
+            }
+        } finally {
+            phase = null;
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    private void replayPendingChanges(int batchSize) throws SQLException {
+        int replayed;
+        do {
+            replayed = userPartitionRepository.replayChanges(batchSize);
+            replayedChanges.add(replayed);
+        } while (replayed == batchSize);
+    }
+
+    private void swap(int batchSize, UserProperties.Repartition config) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                replayedChanges.add(userPartitionRepository.swap(batchSize, config.getLockTimeout()));
+                return;
+            } catch (SQLException e) {
+                // 55P03：lock_timeout 内没拿到表锁（有长查询或长事务）
+                if (!"55P03".equals(e.getSQLState()) || attempt >= config.getSwapAttempts()) {
+                    throw e;
+                }
+                log.info("Lock on users not acquired within {}, retrying swap (attempt {})", config.getLockTimeout(), attempt);
+                replayPendingChanges(batchSize);
+            }
+        }
+    }
+
+    public enum State {
+        IDLE, RUNNING, COMPLETED, FAILED
+    }
+
+    public enum Phase {
+        PREPARING, COPYING, INDEXING, CATCHING_UP, SWAPPING
+    }
+
+    // estimatedRows 来自统计信息，copiedRows 可能因复制期间的写入而超过它
+    @Data
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class RepartitionStatus {
+        private final State state;
+        private final Phase phase;
+        private final int partitions;
+        private final long estimatedRows;
+        private final long copiedRows;
+        private final long replayedChanges;
+        private final LocalDateTime startedAt;
+        private final LocalDateTime finishedAt;
+        private final String error;
+    }
+}
@@ -1,72 +1,417 @@
 package com.example.demo.service;
 
+import com.example.demo.config.DataSourceRouting;
+import com.example.demo.config.UserProperties;
 import com.example.demo.entity.User;
+import com.example.demo.entity.UserSearchHit;
 import com.example.demo.mapper.UserMapper;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import org.apache.ibatis.cursor.Cursor;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
     
+    public static final int MAX_PAGE_SIZE = 1000;
+    
+    // PostgreSQL 单条语句最多 32767 个绑定参数，每行占 4 个
+    private static final int MAX_ROWS_PER_INSERT = 32767 / 4;
+    
     private final UserMapper userMapper;
     
+    private final UserCache userCache;
+    
+    private final UserNameIndex userNameIndex;
+    
+    private final UserProperties userProperties;
+    
+    private final SingleFlight<Long, User> userByIdFlights = new SingleFlight<>();
+    
+    private final SingleFlight<String, User> userByEmailFlights = new SingleFlight<>();
+    
+    private final MicroBatcher<Long, User> userByIdBatcher = new MicroBatcher<>(this::findUsersByIds);
+    
+    // 列表与搜索允许读到副本复制延迟内的旧数据；按 id / 邮箱的查询结果会进入缓存，在最近没有写入时才走副本
     public List<User> getAllUsers() {
-        return userMapper.findAll();
+        return DataSourceRouting.replica(userMapper::findAll);
+    }
+    
+    // 基于 id 的游标分页，beforeId 为空时从最新的用户开始
+    public List<User> getUsersPage(Long beforeId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return DataSourceRouting.replica(() -> userMapper.findPage(beforeId, pageSize));
+    }
+    
+    // 逐行流式读取全部用户，需要在事务中执行以保持游标打开（PgJDBC 仅在非自动提交时使用 fetchSize）
+    @Transactional(readOnly = true)
+    public void streamAllUsers(Consumer<User> consumer) {
+        try (Cursor<User> cursor = userMapper.streamAll()) {
+            for (User user : cursor) {
+                consumer.accept(user);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
     
     public Optional<User> getUserById(Long id) {
-        return Optional.ofNullable(userMapper.findById(id));
+        return userCache.getById(id, this::loadUserById);
     }
     
     public Optional<User> getUserByEmail(String email) {
-        return Optional.ofNullable(userMapper.findByEmail(email));
+        return userCache.getByEmail(email, this::loadUserByEmail);
     }
     
-    public List<User> getUsersByNameContaining(String name) {
-        return userMapper.findByNameContaining(name);
+    // 批量按 id 查询：结果与请求顺序一一对应，缓存未命中的 id 合并为一次 ANY 查询
+    public List<MultiGetItem<Long>> getUsersByIds(List<Long> ids) {
+        checkMultiGetKeys(ids);
+        Map<Long, Optional<User>> users = userCache.getAllById(ids, keys -> findUsersByIds(new ArrayList<>(keys)));
+        return toMultiGetItems(ids, users);
     }
     
-    public User createUser(User user) {
-        if (userMapper.countByEmail(user.getEmail()) > 0) {
-            throw new RuntimeException("Email already exists: " + user.getEmail());
+    public List<MultiGetItem<String>> getUsersByEmails(List<String> emails) {
+        checkMultiGetKeys(emails);
+        Map<String, Optional<User>> users = userCache.getAllByEmail(emails, this::findUsersByEmails);
+        return toMultiGetItems(emails, users);
+    }
+    
+    private static void checkMultiGetKeys(List<?> keys) {
+        if (keys == null || keys.isEmpty() || keys.size() > MAX_PAGE_SIZE) {
+            throw new RuntimeException("Between 1 and " + MAX_PAGE_SIZE + " keys are required");
         }
-        
+        for (Object key : keys) {
+            if (key == null) {
+                throw new RuntimeException("Keys must not be null");
+            }
+        }
+    }
+    
+    private static <K> List<MultiGetItem<K>> toMultiGetItems(List<K> keys, Map<K, Optional<User>> users) {
+        List<MultiGetItem<K>> items = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            User user = users.getOrDefault(key, Optional.empty()).orElse(null);
+            items.add(new MultiGetItem<>(key, user != null, user));
+        }
+        return items;
+    }
+    
+    // 缓存未命中时的数据库查询，在缓存的锁之外执行：开启 micro-batch 时不同 id 合并为一次 ANY 查询；
+    // 缓存开启时相同 id 的并发查询已由缓存合并，关闭时才需要 SingleFlight
+    private User loadUserById(Long id) {
+        UserProperties.Lookup lookup = userProperties.getLookup();
+        Function<Long, User> loader = lookup.isMicroBatch()
+                ? key -> userByIdBatcher.load(key, lookup.getBatchWindow(), lookup.getMaxBatchSize())
+                : key -> DataSourceRouting.replicaForCache(() -> userMapper.findById(key));
+        return lookup.isCoalesce() && !userCache.isEnabled() ? userByIdFlights.load(id, loader) : loader.apply(id);
+    }
+    
+    private User loadUserByEmail(String email) {
+        Function<String, User> loader = key -> DataSourceRouting.replicaForCache(() -> userMapper.findByEmail(key));
+        return userProperties.getLookup().isCoalesce() ? userByEmailFlights.load(email, loader) : loader.apply(email);
+    }
+    
+    private Map<Long, User> findUsersByIds(List<Long> ids) {
+        Map<Long, User> users = new HashMap<>();
+        Long[] idArray = ids.toArray(new Long[0]);
+        for (User user : DataSourceRouting.replicaForCache(() -> userMapper.findByIds(idArray))) {
+            users.put(user.getId(), user);
+        }
+        return users;
+    }
+    
+    private Map<String, User> findUsersByEmails(Set<String> emails) {
+        Map<String, User> users = new HashMap<>();
+        String[] emailArray = emails.toArray(new String[0]);
+        for (User user : DataSourceRouting.replicaForCache(() -> userMapper.findByEmails(emailArray))) {
+            users.put(user.getEmail(), user);
+        }
+        return users;
+    }
+    
+    // 按 id 倒序返回匹配的用户，limit 为空时不限条数。姓名索引就绪时直接在内存中返回前 K 个匹配
+    // （K 不超过 app.users.name-index.max-results），否则查询数据库
+    public List<User> getUsersByNameContaining(String name, Integer limit) {
+        if (userNameIndex.isReady()) {
+            return limit != null ? userNameIndex.search(name, limit) : userNameIndex.search(name);
+        }
+        return DataSourceRouting.replica(() -> userMapper.findByNameContaining(name, limit));
+    }
+    
+    // 按相似度排序的姓名搜索，(afterScore, afterId) 为上一页最后一条的游标
+    public List<UserSearchHit> searchUsersByName(String query, Double afterScore, Long afterId, int limit) {
+        String trimmed = query == null ? "" : query.trim();
+        int minLength = userProperties.getSearch().getMinQueryLength();
+        if (trimmed.codePointCount(0, trimmed.length()) < minLength) {
+            throw new RuntimeException("Query must be at least " + minLength + " characters");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        String pattern = "%" + escapeLike(trimmed) + "%";
+        return DataSourceRouting.replica(() -> userMapper.searchByName(trimmed, pattern, afterScore, afterId, pageSize));
+    }
+    
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+    
+    // 单条 INSERT ... WHERE NOT EXISTS，邮箱唯一性由 user_emails 的主键保证，并发插入同一邮箱时后提交的一方失败
+    public User createUser(User user) {
         LocalDateTime now = LocalDateTime.now();
         user.setCreatedAt(now);
         user.setUpdatedAt(now);
         
-        userMapper.insert(user);
+        Long id;
+        try {
+            id = userMapper.insertIfAbsent(user);
+        } catch (DuplicateKeyException e) {
+            id = null;
+        }
+        if (id == null) {
+            throw new RuntimeException("Email already exists: " + user.getEmail());
+        }
+        user.setId(id);
+        // 清除该邮箱与新 id 的负缓存（新 id 可能在插入前就被查询过）
+        userCache.invalidate(user);
+        userNameIndex.put(user);
         return user;
     }
     
-    public User updateUser(Long id, User userDetails) {
-        User existingUser = userMapper.findById(id);
-        if (existingUser == null) {
-            throw new RuntimeException("User not found with id: " + id);
+    public List<BatchItemResult> createUsers(List<User> users) {
+        return createUsers(users.iterator());
+    }
+    
+    // 批量创建：按块校验邮箱唯一性（一次 ANY 查询）并用多行 INSERT 写入，逐行返回 id 或错误。
+    // 迭代器的 next() 抛出 InvalidBatchItemException 时只记为该行的错误；每块单独提交，
+    // 中途因数据库或读取失败中止时抛出 BatchAbortedException，带上已处理各行的结果
+    public List<BatchItemResult> createUsers(Iterator<User> users) {
+        int chunkSize = Math.max(1, Math.min(userProperties.getBatch().getChunkSize(), MAX_ROWS_PER_INSERT));
+        List<BatchItemResult> results = new ArrayList<>();
+        List<User> chunk = new ArrayList<>(chunkSize);
+        // 块内下标 -> 解析错误
+        Map<Integer, String> invalid = new HashMap<>();
+        int index = 0;
+        try {
+            while (users.hasNext()) {
+                User user;
+                try {
+                    user = users.next();
+                } catch (InvalidBatchItemException e) {
+                    user = null;
+                    invalid.put(chunk.size(), e.getMessage());
+                }
+                chunk.add(user);
+                if (chunk.size() == chunkSize || !users.hasNext()) {
+                    results.addAll(createChunk(chunk, invalid, index));
+                    index += chunk.size();
+                    chunk.clear();
+                    invalid.clear();
+                }
+            }
+        } catch (RuntimeException e) {
+            // 当前块没有写入，块内各行记为失败；之后的行未处理
+            for (int i = 0; i < chunk.size(); i++) {
+                results.add(BatchItemResult.failed(index + i, invalid.getOrDefault(i, "Not processed: " + e.getMessage())));
+            }
+            throw new BatchAbortedException(results, e);
+        }
+        return results;
+    }
+    
+    private List<BatchItemResult> createChunk(List<User> chunk, Map<Integer, String> invalid, int startIndex) {
+        BatchItemResult[] results = new BatchItemResult[chunk.size()];
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            User user = chunk.get(i);
+            if (invalid.containsKey(i)) {
+                results[i] = BatchItemResult.failed(startIndex + i, invalid.get(i));
+            } else if (user == null || isBlank(user.getName()) || isBlank(user.getEmail())) {
+                results[i] = BatchItemResult.failed(startIndex + i, "Name and email are required");
+            } else if (!emails.add(user.getEmail())) {
+                results[i] = BatchItemResult.failed(startIndex + i, "Duplicate email in batch: " + user.getEmail());
+            }
         }
         
-        if (!existingUser.getEmail().equals(userDetails.getEmail()) && 
-            userMapper.countByEmail(userDetails.getEmail()) > 0) {
-            throw new RuntimeException("Email already exists: " + userDetails.getEmail());
+        Set<String> existing = emails.isEmpty()
+                ? Set.of()
+                : new HashSet<>(userMapper.findExistingEmails(emails.toArray(new String[0])));
+        LocalDateTime now = LocalDateTime.now();
+        List<User> toInsert = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            User user = chunk.get(i);
+            if (existing.contains(user.getEmail())) {
+                results[i] = BatchItemResult.failed(startIndex + i, "Email already exists: " + user.getEmail());
+                continue;
+            }
+            user.setCreatedAt(now);
+            user.setUpdatedAt(now);
+            toInsert.add(user);
+            positions.add(i);
         }
         
-        existingUser.setName(userDetails.getName());
-        existingUser.setEmail(userDetails.getEmail());
-        existingUser.setUpdatedAt(LocalDateTime.now());
+        if (!toInsert.isEmpty()) {
+            try {
+                userMapper.insertBatch(toInsert);
+                for (int k = 0; k < toInsert.size(); k++) {
+                    results[positions.get(k)] = BatchItemResult.created(startIndex + positions.get(k), toInsert.get(k).getId());
+                }
+            } catch (DataAccessException e) {
+                // 并发写入导致整块失败时逐行重试，以便给出每行的错误
+                for (int k = 0; k < toInsert.size(); k++) {
+                    results[positions.get(k)] = insertSingle(toInsert.get(k), startIndex + positions.get(k));
+                }
+            }
+            for (User user : toInsert) {
+                userCache.invalidateEmail(user.getEmail());
+                if (user.getId() != null) {
+                    userCache.invalidate(user.getId());
+                    userNameIndex.put(user);
+                }
+            }
+        }
+        return List.of(results);
+    }
+    
+    private BatchItemResult insertSingle(User user, int index) {
+        try {
+            Long id = userMapper.insertIfAbsent(user);
+            if (id == null) {
+                return BatchItemResult.failed(index, "Email already exists: " + user.getEmail());
+            }
+            user.setId(id);
+            return BatchItemResult.created(index, id);
+        } catch (DuplicateKeyException e) {
+            return BatchItemResult.failed(index, "Email already exists: " + user.getEmail());
+        } catch (DataAccessException e) {
+            return BatchItemResult.failed(index, e.getMostSpecificCause().getMessage());
+        }
+    }
+    
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+    
+    // 单条 UPDATE ... RETURNING，未更新到行即用户不存在
+    public User updateUser(Long id, User userDetails) {
+        User user = new User();
+        user.setId(id);
+        user.setName(userDetails.getName());
+        user.setEmail(userDetails.getEmail());
+        user.setUpdatedAt(LocalDateTime.now());
         
-        userMapper.update(existingUser);
-        return existingUser;
+        User updatedUser;
+        try {
+            updatedUser = userMapper.updateReturning(user);
+        } catch (DuplicateKeyException e) {
+            throw new RuntimeException("Email already exists: " + userDetails.getEmail());
+        }
+        if (updatedUser == null) {
+            throw new RuntimeException("User not found with id: " + id);
+        }
+        // 旧邮箱的索引会在读取时因 id 条目失效而重新加载
+        userCache.invalidate(updatedUser);
+        userNameIndex.put(updatedUser);
+        return updatedUser;
     }
     
     public void deleteUser(Long id) {
-        if (userMapper.countById(id) == 0) {
+        User deletedUser = userMapper.deleteByIdReturning(id);
+        if (deletedUser == null) {
             throw new RuntimeException("User not found with id: " + id);
         }
-        userMapper.deleteById(id);
+        userCache.invalidate(deletedUser);
+        userNameIndex.remove(id);
+    }
+    
+    public UserCache.UserCacheStats getCacheStats() {
+        return userCache.stats();
+    }
+    
+    public UserNameIndex.IndexStats getNameIndexStats() {
+        return userNameIndex.stats();
+    }
+    
+    public LookupStats getLookupStats() {
+        return new LookupStats(userByIdFlights.sharedCount() + userCache.coalescedByIdCount(),
+                userByEmailFlights.sharedCount(), userByIdBatcher.batchCount(), userByIdBatcher.batchedKeyCount());
+    }
+    
+    // coalesced：共享了其他并发查询结果的次数；batches / batchedIds：合并后的查询次数与其中的 id 数
+    @Data
+    public static class LookupStats {
+        private final long coalescedById;
+        private final long coalescedByEmail;
+        private final long batches;
+        private final long batchedIds;
+    }
+    
+    // 批量查询的单项结果，key 为请求中的 id 或邮箱，未找到时 found 为 false 且不含 user
+    @Data
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class MultiGetItem<K> {
+        private final K key;
+        private final boolean found;
+        private final User user;
+    }
+    
+    @Data
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class BatchItemResult {
+        private final int index;
+        private final Long id;
+        private final String error;
+        
+        static BatchItemResult created(int index, Long id) {
+            return new BatchItemResult(index, id, null);
+        }
+        
+        static BatchItemResult failed(int index, String error) {
+            return new BatchItemResult(index, null, error);
+        }
+    }
+    
+    // 批量创建的输入中无法解析的一行，由调用方的迭代器在 next() 中抛出
+    public static class InvalidBatchItemException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        
+        public InvalidBatchItemException(String message) {
+            super(message);
+        }
+    }
+    
+    // 批量创建中途中止；completed 为已处理各行的结果，其中已成功的行已提交
+    @Getter
+    public static class BatchAbortedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        
+        private final transient List<BatchItemResult> completed;
+        
+        public BatchAbortedException(List<BatchItemResult> completed, RuntimeException cause) {
+            super(cause.getMessage(), cause);
+            this.completed = completed;
+        }
     }
 }
\ No newline at end of file
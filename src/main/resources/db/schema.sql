@@ -1,12 +1,90 @@
+-- 用户表按 id 哈希分区。分区表上的唯一约束必须包含分区键，邮箱唯一性改由按邮箱哈希分区的 user_emails 保证，
+-- 由 users 上的触发器维护。按 id 查询只访问 users 的一个分区；按邮箱查询先在 user_emails 的一个分区中取 id，
+-- 再访问 users 的一个分区。分区数在首次建表时确定，之后用 POST /api/users/repartition 在线调整。
+-- 脚本每次启动都会执行，所有语句均可重复执行；PL/pgSQL 代码用单引号而非 $$ 包裹，以便按分号拆分语句。
+CREATE SEQUENCE IF NOT EXISTS users_id_seq;
+
+-- 从旧版本的非分区表迁移（第一步）：旧表改名，让出表名、约束名和索引名
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class WHERE oid = to_regclass(''users'') AND relkind = ''r'') THEN
+        ALTER SEQUENCE users_id_seq OWNED BY NONE;
+        ALTER TABLE users RENAME TO users_unpartitioned;
+        ALTER TABLE users_unpartitioned RENAME CONSTRAINT users_pkey TO users_unpartitioned_pkey;
+        ALTER TABLE users_unpartitioned RENAME CONSTRAINT users_email_key TO users_unpartitioned_email_key;
+        DROP INDEX IF EXISTS idx_users_email, idx_users_name, idx_users_name_trgm;
+    END IF;
+END';
+
 -- 创建用户表
 CREATE TABLE IF NOT EXISTS users (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGINT NOT NULL DEFAULT nextval('users_id_seq'),
     name VARCHAR(100) NOT NULL,
-    email VARCHAR(255) NOT NULL UNIQUE,
+    email VARCHAR(255) NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-);
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id)
+) PARTITION BY HASH (id);
+
+ALTER SEQUENCE users_id_seq OWNED BY users.id;
+
+-- 邮箱 -> 用户 id
+CREATE TABLE IF NOT EXISTS user_emails (
+    email VARCHAR(255) NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (email)
+) PARTITION BY HASH (email);
+
+-- 首次建表时各创建 16 个分区
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_inherits WHERE inhparent = ''users''::regclass) THEN
+        FOR i IN 0 .. 15 LOOP
+            EXECUTE format(''CREATE TABLE users_p%s PARTITION OF users FOR VALUES WITH (MODULUS 16, REMAINDER %s)'', i, i);
+        END LOOP;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_inherits WHERE inhparent = ''user_emails''::regclass) THEN
+        FOR i IN 0 .. 15 LOOP
+            EXECUTE format(''CREATE TABLE user_emails_p%s PARTITION OF user_emails FOR VALUES WITH (MODULUS 16, REMAINDER %s)'', i, i);
+        END LOOP;
+    END IF;
+END';
+
+-- 写入、修改邮箱和删除用户时同步 user_emails；邮箱已被占用时插入失败，整条语句以唯一约束错误回滚
+CREATE OR REPLACE FUNCTION users_sync_email() RETURNS trigger LANGUAGE plpgsql AS '
+BEGIN
+    IF TG_OP = ''UPDATE'' AND OLD.email = NEW.email THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP <> ''INSERT'' THEN
+        DELETE FROM user_emails WHERE email = OLD.email AND user_id = OLD.id;
+    END IF;
+    IF TG_OP <> ''DELETE'' THEN
+        INSERT INTO user_emails (email, user_id) VALUES (NEW.email, NEW.id);
+    END IF;
+    RETURN NULL;
+END';
+
+DROP TRIGGER IF EXISTS users_sync_email ON users;
+CREATE TRIGGER users_sync_email
+    AFTER INSERT OR DELETE OR UPDATE OF email ON users
+    FOR EACH ROW EXECUTE FUNCTION users_sync_email();
+
+-- 从旧版本的非分区表迁移（第二步）：整表复制后删除旧表。中途失败时重启会从头再复制，已复制的行跳过
+DO '
+BEGIN
+    IF to_regclass(''users_unpartitioned'') IS NOT NULL THEN
+        INSERT INTO users (id, name, email, created_at, updated_at)
+        SELECT id, name, email, created_at, updated_at
+        FROM users_unpartitioned
+        ON CONFLICT (id) DO NOTHING;
+        DROP TABLE users_unpartitioned;
+    END IF;
+END';
+
+-- 创建索引（分区表上的索引会在每个分区上创建）
+CREATE INDEX IF NOT EXISTS idx_users_name ON users(name);
 
--- 创建索引
-CREATE INDEX IF NOT EXISTS idx_users_email ON users(email);
-CREATE INDEX IF NOT EXISTS idx_users_name ON users(name);
\ No newline at end of file
+-- 姓名模糊搜索使用的 trigram 索引（LIKE '%x%' 与相似度查询均可走索引）
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_users_name_trgm ON users USING gin (name gin_trgm_ops);
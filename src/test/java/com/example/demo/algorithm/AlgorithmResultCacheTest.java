@@ -0,0 +1,135 @@
+package com.example.demo.algorithm;
+
+import com.example.demo.algorithm.AlgorithmResultCache.CacheMetrics;
+import com.example.demo.config.AlgorithmProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlgorithmResultCacheTest {
+
+    private final PrimeEngine primeEngine = new PrimeEngine();
+
+    private final SequenceEngine sequenceEngine = new SequenceEngine();
+
+    private final AlgorithmResultCache resultCache =
+            new AlgorithmResultCache(primeEngine, sequenceEngine, new AlgorithmProperties());
+
+    @Test
+    void primesInRange_ShouldSliceAndExtendCachedTable() {
+        // Given
+        resultCache.primesUpTo(10_000);
+
+        // When
+        int[] smaller = resultCache.primesInRange(100, 200);
+        int[] larger = resultCache.primesInRange(9_000, 50_000);
+
+        // Then
+        assertArrayEquals(primeEngine.primesInRange(100, 200), smaller);
+        assertArrayEquals(primeEngine.primesInRange(9_000, 50_000), larger);
+        CacheMetrics metrics = resultCache.stats().getPrimes();
+        assertEquals(1, metrics.getMissCount());
+        assertEquals(1, metrics.getHitCount());
+        assertEquals(1, metrics.getExtendCount());
+        assertTrue(metrics.getCoverage() >= 50_000);
+    }
+
+    @Test
+    void primesInRange_WhenRangeIsAboveCachedPrefix_ShouldSieveRangeWithoutExtendingTable() {
+        // Given
+        resultCache.primesUpTo(1_000);
+
+        // When
+        int[] primes = resultCache.primesInRange(2_000_000, 2_000_100);
+
+        // Then
+        assertArrayEquals(primeEngine.primesInRange(2_000_000, 2_000_100), primes);
+        CacheMetrics metrics = resultCache.stats().getPrimes();
+        assertEquals(1_000, metrics.getCoverage());
+        assertEquals(2, metrics.getMissCount());
+        assertEquals(0, metrics.getExtendCount());
+    }
+
+    @Test
+    void countPrimes_WhenCovered_ShouldMatchEngine() {
+        // Given
+        resultCache.primesUpTo(100_000);
+
+        // When
+        long count = resultCache.countPrimes(1, 99_991);
+
+        // Then
+        assertEquals(primeEngine.countPrimes(1, 99_991), count);
+        assertEquals(1, resultCache.stats().getPrimes().getHitCount());
+    }
+
+    @Test
+    void primesInRange_WhenAboveBudget_ShouldComputeWithoutCaching() {
+        // Given
+        AlgorithmProperties properties = new AlgorithmProperties();
+        properties.getResultCache().setMaxSize(DataSize.ofKilobytes(4));
+        AlgorithmResultCache smallCache = new AlgorithmResultCache(primeEngine, sequenceEngine, properties);
+
+        // When
+        int[] primes = smallCache.primesUpTo(100_000);
+
+        // Then
+        assertEquals(9592, primes.length);
+        assertEquals(1, smallCache.stats().getPrimes().getCoverage());
+    }
+
+    @Test
+    void fibonacci_ShouldReuseAndExtendPrefix() {
+        // When
+        List<BigInteger> first = resultCache.fibonacci(3);
+        List<BigInteger> extended = resultCache.fibonacci(500);
+        List<BigInteger> prefix = resultCache.fibonacci(100);
+
+        // Then
+        assertEquals(sequenceEngine.fibonacci(3), first);
+        assertEquals(sequenceEngine.fibonacci(500), extended);
+        assertEquals(sequenceEngine.fibonacci(100), prefix);
+        assertEquals(sequenceEngine.fibonacciTerm(321), resultCache.fibonacciTerm(321));
+        CacheMetrics metrics = resultCache.stats().getFibonacci();
+        assertEquals(2, metrics.getHitCount());
+        assertEquals(1, metrics.getExtendCount());
+    }
+
+    @Test
+    void factorial_ShouldContinueFromLargestCachedFactorial() {
+        // Given
+        resultCache.factorial(1000);
+
+        // When
+        BigInteger result = resultCache.factorial(5000);
+
+        // Then
+        assertEquals(SequenceEngine.productTreeFactorial(5000), result);
+        assertSame(result, resultCache.factorial(5000));
+        CacheMetrics metrics = resultCache.stats().getFactorial();
+        assertEquals(1, metrics.getMissCount());
+        assertEquals(1, metrics.getExtendCount());
+        assertEquals(1, metrics.getHitCount());
+        assertEquals(2, metrics.getCoverage());
+    }
+
+    @Test
+    void disabledCache_ShouldDelegateToEngines() {
+        // Given
+        AlgorithmProperties properties = new AlgorithmProperties();
+        properties.getResultCache().setEnabled(false);
+        AlgorithmResultCache disabled = new AlgorithmResultCache(primeEngine, sequenceEngine, properties);
+
+        // When
+        disabled.primesUpTo(1000);
+        disabled.fibonacci(10);
+
+        // Then
+        assertEquals(1, disabled.stats().getPrimes().getCoverage());
+        assertEquals(0, disabled.stats().getFibonacci().getCoverage());
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrimeEngineTest {
+
+    private final PrimeEngine primeEngine = new PrimeEngine();
+
+    @Test
+    void primesUpTo_ShouldIncludeLimitWhenPrime() {
+        assertArrayEquals(new int[]{2, 3, 5, 7, 11, 13}, primeEngine.primesUpTo(13));
+    }
+
+    @Test
+    void primesUpTo_WhenLimitBelowTwo_ShouldReturnEmptyList() {
+        assertEquals(0, primeEngine.primesUpTo(1).length);
+    }
+
+    @Test
+    void primesUpTo_ShouldCountPrimesBelowOneHundredThousand() {
+        assertEquals(9592, primeEngine.primesUpTo(100_000).length);
+    }
+
+    @Test
+    void primesInRange_ShouldMatchTrialDivisionAcrossSegments() {
+        // 跨越多个分段，并且起点不在段边界上
+        int from = PrimeEngine.SEGMENT_ODDS - 1001;
+        int to = 3 * PrimeEngine.SEGMENT_ODDS * 2 + 17;
+        List<Integer> expected = new ArrayList<>();
+        for (int n = from; n <= to; n++) {
+            if (primeEngine.isPrime(n)) {
+                expected.add(n);
+            }
+        }
+
+        int[] primes = primeEngine.primesInRange(from, to);
+
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), primes);
+        assertEquals(expected.size(), primeEngine.countPrimes(from, to));
+    }
+
+    @Test
+    void countPrimes_ShouldHandleSmallRanges() {
+        assertEquals(0, primeEngine.countPrimes(0, 1));
+        assertEquals(1, primeEngine.countPrimes(2, 2));
+        assertEquals(4, primeEngine.countPrimes(1, 10));
+        assertEquals(0, primeEngine.countPrimes(24, 28));
+        assertEquals(1, primeEngine.countPrimes(29, 29));
+    }
+
+    @Test
+    void countPrimes_ShouldCountPrimesBelowOneHundredMillion() {
+        assertEquals(5_761_455, primeEngine.countPrimes(2, 100_000_000));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.demo.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchEngineTest {
+
+    private final SearchEngine searchEngine = new SearchEngine();
+
+    @Test
+    void binarySearch_ShouldNotModifyCallerArray() {
+        int[] array = {9, 1, 5};
+
+        assertEquals(1, searchEngine.binarySearch(array, 5));
+        assertArrayEquals(new int[]{9, 1, 5}, array);
+    }
+
+    @Test
+    void lowerAndUpperBound_ShouldMatchLinearScan() {
+        Random random = new Random(42);
+        for (int size : new int[]{0, 1, 2, 3, 7, 100, 1000}) {
+            int[] values = random.ints(size, -20, 20).toArray();
+            Arrays.sort(values);
+            for (SortedIntArray array : new SortedIntArray[]{SortedIntArray.onHeap(values), SortedIntArray.offHeap(values)}) {
+                for (int target = -22; target <= 22; target++) {
+                    assertEquals(linearLowerBound(values, target), searchEngine.lowerBound(array, target),
+                            "lowerBound size=" + size + " target=" + target);
+                    assertEquals(linearUpperBound(values, target), searchEngine.upperBound(array, target),
+                            "upperBound size=" + size + " target=" + target);
+                }
+            }
+        }
+    }
+
+    @Test
+    void lowerBound_ShouldHandleExtremeValues() {
+        SortedIntArray array = SortedIntArray.onHeap(new int[]{Integer.MIN_VALUE, 0, Integer.MAX_VALUE});
+
+        assertEquals(0, searchEngine.lowerBound(array, Integer.MIN_VALUE));
+        assertEquals(2, searchEngine.lowerBound(array, Integer.MAX_VALUE));
+        assertEquals(3, searchEngine.upperBound(array, Integer.MAX_VALUE));
+    }
+
+    private static int linearLowerBound(int[] values, int target) {
+        int i = 0;
+        while (i < values.length && values[i] < target) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int linearUpperBound(int[] values, int target) {
+        int i = 0;
+        while (i < values.length && values[i] <= target) {
+            i++;
+        }
+        return i;
+    }
+}
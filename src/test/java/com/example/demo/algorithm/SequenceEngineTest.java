@@ -0,0 +1,48 @@
+package com.example.demo.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SequenceEngineTest {
+
+    private final SequenceEngine sequenceEngine = new SequenceEngine();
+
+    @Test
+    void fibonacciTerm_ShouldMatchIterativeSequence() {
+        List<BigInteger> sequence = sequenceEngine.fibonacci(500);
+        for (int n = 0; n < sequence.size(); n++) {
+            assertEquals(sequence.get(n), sequenceEngine.fibonacciTerm(n), "F(" + n + ")");
+        }
+    }
+
+    @Test
+    void fibonacciTerm_ShouldReturnCachedInstance() {
+        assertSame(sequenceEngine.fibonacciTerm(1000), sequenceEngine.fibonacciTerm(1000));
+    }
+
+    @Test
+    void factorial_ShouldMatchNaiveProduct() {
+        BigInteger expected = BigInteger.ONE;
+        for (int n = 0; n <= 300; n++) {
+            if (n > 1) {
+                expected = expected.multiply(BigInteger.valueOf(n));
+            }
+            assertEquals(expected, sequenceEngine.factorial(n), n + "!");
+        }
+    }
+
+    @Test
+    void factorial_WhenParallel_ShouldMatchNaiveProduct() {
+        int n = SequenceEngine.PARALLEL_THRESHOLD * 3 + 7;
+        BigInteger expected = BigInteger.ONE;
+        for (int i = 2; i <= n; i++) {
+            expected = expected.multiply(BigInteger.valueOf(i));
+        }
+
+        assertEquals(expected, SequenceEngine.productTreeFactorial(n));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.demo.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortEngineTest {
+
+    private final SortEngine sortEngine = new SortEngine();
+
+    @Test
+    void quickSort_ShouldMatchArraysSort() {
+        Random random = new Random(42);
+        for (int size : new int[]{0, 1, 2, 10, 1000}) {
+            // Given
+            int[] array = random.ints(size, -50, 50).toArray();
+            int[] expected = array.clone();
+            Arrays.sort(expected);
+
+            // When
+            sortEngine.quickSort(array);
+
+            // Then
+            assertArrayEquals(expected, array);
+        }
+    }
+
+    @Test
+    void sort_EveryStrategy_ShouldMatchArraysSort() {
+        Random random = new Random(42);
+        int n = 50_000;
+        int[][] inputs = {
+                random.ints(n).toArray(),
+                random.ints(n, 0, 4).toArray(),
+                IntStream.range(0, n).toArray(),
+                IntStream.range(0, n).map(i -> n - i).toArray(),
+                IntStream.range(0, n).map(i -> i < n / 2 ? i : n - i).toArray(),
+                new int[n],
+                {Integer.MIN_VALUE, -1, 0, Integer.MAX_VALUE, 1, Integer.MIN_VALUE},
+        };
+        for (SortStrategy strategy : SortStrategy.values()) {
+            for (int[] input : inputs) {
+                // Given
+                int[] array = input.clone();
+                int[] expected = input.clone();
+                Arrays.sort(expected);
+
+                // When
+                sortEngine.sort(array, strategy);
+
+                // Then
+                assertArrayEquals(expected, array, strategy.name());
+            }
+        }
+    }
+
+    @Test
+    void introsort_WhenInputIsSortedOrAllEqual_ShouldNotOverflowStack() {
+        int n = 2_000_000;
+        int[] sorted = IntStream.range(0, n).toArray();
+        int[] equal = new int[n];
+
+        SortEngine.introsort(sorted, 0, n);
+        SortEngine.introsort(equal, 0, n);
+
+        assertEquals(n - 1, sorted[n - 1]);
+        assertEquals(0, equal[n - 1]);
+    }
+
+    @Test
+    void select_ShouldPickStrategyByPresortednessAndSize() {
+        assertEquals(SortStrategy.PRESORTED, SortEngine.select(new int[]{1, 2, 2, 3}));
+        assertEquals(SortStrategy.PRESORTED, SortEngine.select(new int[]{3, 2, 2, 1}));
+        assertEquals(SortStrategy.INTROSORT, SortEngine.select(new int[]{3, 1, 2}));
+
+        int[] nearlySorted = IntStream.range(0, 10_000).toArray();
+        nearlySorted[5000] = -1;
+        assertEquals(SortStrategy.DUAL_PIVOT, SortEngine.select(nearlySorted));
+
+        SortStrategy large = SortEngine.select(new Random(42).ints(SortEngine.PARALLEL_THRESHOLD).toArray());
+        assertEquals(Runtime.getRuntime().availableProcessors() > 1 ? SortStrategy.PARALLEL : SortStrategy.RADIX,
+                large);
+    }
+
+    @Test
+    void bubbleSort_ShouldMatchArraysSort() {
+        // Given
+        int[] array = new Random(42).ints(500, -50, 50).toArray();
+        int[] expected = array.clone();
+        Arrays.sort(expected);
+
+        // When
+        sortEngine.bubbleSort(array);
+
+        // Then
+        assertArrayEquals(expected, array);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.time.Duration;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataSourceConfigTest {
+
+    @Test
+    void configure_ShouldApplyPoolAndStatementSettings() {
+        // Given
+        DataSourceTuningProperties tuning = new DataSourceTuningProperties();
+        tuning.getPool().setMaximumPoolSize(20);
+        tuning.getPool().setMinimumIdle(5);
+        tuning.getPool().setConnectionTimeout(Duration.ofSeconds(2));
+        tuning.getStatements().setPrepareThreshold(0);
+        tuning.getStatements().setStatementTimeout(Duration.ofSeconds(15));
+
+        // When
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            DataSourceConfig.configure(dataSource, tuning);
+
+            // Then
+            assertEquals("primary", dataSource.getPoolName());
+            assertEquals(20, dataSource.getMaximumPoolSize());
+            assertEquals(5, dataSource.getMinimumIdle());
+            assertEquals(2000, dataSource.getConnectionTimeout());
+            Properties properties = dataSource.getDataSourceProperties();
+            assertEquals(0, properties.get("prepareThreshold"));
+            assertEquals(256, properties.get("preparedStatementCacheQueries"));
+            assertEquals(true, properties.get("reWriteBatchedInserts"));
+            assertEquals("-c statement_timeout=15000", properties.get("options"));
+        }
+    }
+
+    @Test
+    void configure_WhenMinimumIdleAboveMaximum_ShouldCapToPoolSize() {
+        // Given
+        DataSourceTuningProperties tuning = new DataSourceTuningProperties();
+        tuning.getPool().setMaximumPoolSize(4);
+
+        // When
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            DataSourceConfig.configure(dataSource, tuning);
+
+            // Then
+            assertEquals(4, dataSource.getMinimumIdle());
+        }
+    }
+
+    @Test
+    void replicaDataSource_ShouldInheritCredentialsAndTuning() {
+        // Given
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setDriverClassName("org.postgresql.Driver");
+        properties.setUsername("postgres");
+        properties.setPassword("secret");
+        DataSourceTuningProperties tuning = new DataSourceTuningProperties();
+        tuning.getPool().setMaximumPoolSize(6);
+        DataSourceTuningProperties.Replica replica = new DataSourceTuningProperties.Replica();
+        replica.setUrl("jdbc:postgresql://replica:5432/demo_db");
+        tuning.getReplicas().add(replica);
+
+        // When
+        try (HikariDataSource dataSource = DataSourceConfig.replicaDataSource(properties, tuning, 0)) {
+
+            // Then
+            assertEquals("replica-1", dataSource.getPoolName());
+            assertEquals("jdbc:postgresql://replica:5432/demo_db", dataSource.getJdbcUrl());
+            assertEquals("postgres", dataSource.getUsername());
+            assertEquals("secret", dataSource.getPassword());
+            assertEquals(6, dataSource.getMaximumPoolSize());
+            assertTrue(dataSource.isReadOnly());
+            assertEquals("replica-1", dataSource.getDataSourceProperties().get("ApplicationName"));
+        }
+    }
+}
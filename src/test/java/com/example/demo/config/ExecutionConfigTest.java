@@ -0,0 +1,43 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ExecutionConfigTest {
+
+    @Test
+    void virtualThreadExecutor_WhenPlatformMode_ShouldBeEmpty() {
+        assertTrue(ExecutionConfig.virtualThreadExecutor(ExecutionProperties.Mode.PLATFORM).isEmpty());
+    }
+
+    @Test
+    void virtualThreadExecutor_WhenUnsupported_ShouldFallBackToPlatformThreads() {
+        assumeFalse(VirtualThreads.isSupported());
+
+        assertTrue(ExecutionConfig.virtualThreadExecutor(ExecutionProperties.Mode.VIRTUAL_THREADS).isEmpty());
+    }
+
+    @Test
+    void virtualThreadExecutor_WhenSupported_ShouldRunTasksOnVirtualThreads() throws Exception {
+        assumeTrue(VirtualThreads.isSupported());
+
+        // Given
+        Optional<Executor> executor = ExecutionConfig.virtualThreadExecutor(ExecutionProperties.Mode.VIRTUAL_THREADS);
+        assertTrue(executor.isPresent());
+
+        // When
+        CompletableFuture<String> threadName = new CompletableFuture<>();
+        executor.get().execute(() -> threadName.complete(Thread.currentThread().getName()));
+
+        // Then
+        assertTrue(threadName.get(5, TimeUnit.SECONDS).startsWith("http-virtual-"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntArrayHttpMessageConverterTest {
+
+    private static final long MAX_BODY_SIZE = 64 * 1024;
+
+    private final IntArrayHttpMessageConverter converter = new IntArrayHttpMessageConverter(MAX_BODY_SIZE);
+
+    @Test
+    void read_ShouldDecodeLittleEndianInt32() throws Exception {
+        // Given
+        byte[] body = {1, 0, 0, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0, 1, 0, 0};
+        MockHttpInputMessage input = new MockHttpInputMessage(body);
+        input.getHeaders().setContentLength(body.length);
+
+        // When
+        int[] values = converter.read(int[].class, input);
+
+        // Then
+        assertArrayEquals(new int[]{1, -1, 256}, values);
+    }
+
+    @Test
+    void read_WhenLengthNotMultipleOfFour_ShouldReject() {
+        MockHttpInputMessage input = new MockHttpInputMessage(new byte[]{1, 2, 3});
+
+        assertThrows(HttpMessageNotReadableException.class, () -> converter.read(int[].class, input));
+    }
+
+    @Test
+    void read_WhenChunkedBodySpansManyBuffers_ShouldDecodeAllValues() throws Exception {
+        // Given
+        int[] expected = new int[10_000];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = i * 31 - 5000;
+        }
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(expected, MediaType.APPLICATION_OCTET_STREAM, output);
+        // 不带 Content-Length，且每次只返回 3 个字节，int 跨越读取边界
+        MockHttpInputMessage input = new MockHttpInputMessage(new TrickleInputStream(output.getBodyAsBytes(), 3));
+
+        // When
+        int[] values = converter.read(int[].class, input);
+
+        // Then
+        assertArrayEquals(expected, values);
+    }
+
+    @Test
+    void read_WhenDeclaredLengthExceedsLimit_ShouldRejectWithoutReading() {
+        // Given
+        MockHttpInputMessage input = new MockHttpInputMessage(new byte[0]);
+        input.getHeaders().setContentLength(Integer.MAX_VALUE - 3L);
+
+        // When
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> converter.read(int[].class, input));
+
+        // Then
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, e.getStatus());
+    }
+
+    @Test
+    void read_WhenChunkedBodyExceedsLimit_ShouldReject() {
+        // Given
+        MockHttpInputMessage input = new MockHttpInputMessage(new byte[(int) MAX_BODY_SIZE + 4]);
+
+        // When
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> converter.read(int[].class, input));
+
+        // Then
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, e.getStatus());
+    }
+
+    @Test
+    void write_ShouldRoundTrip() throws Exception {
+        // Given
+        int[] values = {Integer.MIN_VALUE, 0, 7, Integer.MAX_VALUE};
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        // When
+        converter.write(values, MediaType.APPLICATION_OCTET_STREAM, output);
+
+        // Then
+        assertEquals(16, output.getHeaders().getContentLength());
+        assertArrayEquals(values, converter.read(int[].class, new MockHttpInputMessage(output.getBodyAsBytes())));
+    }
+
+    private static class TrickleInputStream extends ByteArrayInputStream {
+
+        private final int maxRead;
+
+        TrickleInputStream(byte[] bytes, int maxRead) {
+            super(bytes);
+            this.maxRead = maxRead;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            return super.read(b, off, Math.min(len, maxRead));
+        }
+    }
+}
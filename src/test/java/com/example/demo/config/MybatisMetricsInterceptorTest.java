@@ -0,0 +1,67 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MybatisMetricsInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final MybatisMetricsInterceptor interceptor = new MybatisMetricsInterceptor(meterRegistry);
+
+    @Test
+    void intercept_ShouldTimeStatementById() throws Throwable {
+        // Given
+        Invocation invocation = invocation("com.example.demo.mapper.UserMapper.findById", SqlCommandType.SELECT);
+        when(invocation.proceed()).thenReturn("user");
+
+        // When
+        Object result = interceptor.intercept(invocation);
+
+        // Then
+        assertEquals("user", result);
+        Timer timer = meterRegistry.find(MybatisMetricsInterceptor.METRIC_NAME)
+                .tag("statement", "com.example.demo.mapper.UserMapper.findById")
+                .tag("command", "SELECT")
+                .tag("outcome", "success")
+                .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void intercept_WhenStatementFails_ShouldRecordError() throws Throwable {
+        // Given
+        Invocation invocation = invocation("com.example.demo.mapper.UserMapper.insertBatch", SqlCommandType.INSERT);
+        when(invocation.proceed()).thenThrow(new PersistenceException("duplicate key"));
+
+        // When
+        assertThrows(PersistenceException.class, () -> interceptor.intercept(invocation));
+
+        // Then
+        assertEquals(1, meterRegistry.get(MybatisMetricsInterceptor.METRIC_NAME)
+                .tag("outcome", "error")
+                .timer()
+                .count());
+    }
+
+    private static Invocation invocation(String statementId, SqlCommandType commandType) {
+        Configuration configuration = new Configuration();
+        MappedStatement statement = new MappedStatement.Builder(configuration, statementId,
+                new StaticSqlSource(configuration, "SELECT 1"), commandType).build();
+        Invocation invocation = mock(Invocation.class);
+        when(invocation.getArgs()).thenReturn(new Object[]{statement, null});
+        return invocation;
+    }
+}
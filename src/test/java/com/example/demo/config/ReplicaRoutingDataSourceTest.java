@@ -0,0 +1,219 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private HikariDataSource primary;
+
+    private HikariDataSource replica1;
+
+    private HikariDataSource replica2;
+
+    private Connection primaryConnection;
+
+    private Connection replica1Connection;
+
+    private Connection replica2Connection;
+
+    private DataSourceTuningProperties.Routing routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = pool("primary");
+        replica1 = pool("replica-1");
+        replica2 = pool("replica-2");
+        primaryConnection = mock(Connection.class);
+        replica1Connection = mock(Connection.class);
+        replica2Connection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica1.getConnection()).thenReturn(replica1Connection);
+        when(replica2.getConnection()).thenReturn(replica2Connection);
+        routing = new DataSourceTuningProperties.Routing();
+        // 测试中不启动探测线程
+        routing.setProbeInterval(Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        DataSourceRouting.clearClient();
+    }
+
+    @Test
+    void getConnection_WhenUnmarked_ShouldUsePrimary() throws SQLException {
+        // Given
+        try (ReplicaRoutingDataSource dataSource = routingDataSource()) {
+
+            // When
+            Connection target = targetConnection(dataSource);
+
+            // Then
+            assertSame(primaryConnection, target);
+        }
+    }
+
+    @Test
+    void getConnection_WhenMarkedReplica_ShouldRoundRobin() throws SQLException {
+        // Given
+        try (ReplicaRoutingDataSource dataSource = routingDataSource()) {
+
+            // When
+            Connection first = DataSourceRouting.replica(() -> targetConnection(dataSource));
+            Connection second = DataSourceRouting.replica(() -> targetConnection(dataSource));
+
+            // Then
+            assertSame(replica1Connection, first);
+            assertSame(replica2Connection, second);
+        }
+    }
+
+    @Test
+    void getConnection_AfterClientWrite_ShouldReadFromPrimaryForThatClientOnly() throws SQLException {
+        // Given
+        try (ReplicaRoutingDataSource dataSource = routingDataSource()) {
+            DataSourceRouting.setClient("writer");
+            targetConnection(dataSource);
+
+            // When
+            Connection writerRead = DataSourceRouting.replica(() -> targetConnection(dataSource));
+            DataSourceRouting.setClient("reader");
+            Connection readerRead = DataSourceRouting.replica(() -> targetConnection(dataSource));
+
+            // Then
+            assertSame(primaryConnection, writerRead);
+            assertNotSame(primaryConnection, readerRead);
+        }
+    }
+
+    @Test
+    void getConnection_WhenCacheableReadAfterAnyWrite_ShouldUsePrimary() throws SQLException {
+        // Given
+        try (ReplicaRoutingDataSource dataSource = routingDataSource()) {
+            targetConnection(dataSource);
+
+            // When
+            Connection cacheable = DataSourceRouting.replicaForCache(() -> targetConnection(dataSource));
+            Connection staleOk = DataSourceRouting.replica(() -> targetConnection(dataSource));
+
+            // Then
+            assertSame(primaryConnection, cacheable);
+            assertNotSame(primaryConnection, staleOk);
+        }
+    }
+
+    @Test
+    void getConnection_InReadWriteTransaction_ShouldUsePrimaryEvenWhenMarked() throws SQLException {
+        // Given
+        try (ReplicaRoutingDataSource dataSource = routingDataSource()) {
+            TransactionSynchronizationManager.setActualTransactionActive(true);
+            try {
+
+                // When
+                Connection target = DataSourceRouting.replica(() -> targetConnection(dataSource));
+
+                // Then
+                assertSame(primaryConnection, target);
+            } finally {
+                TransactionSynchronizationManager.setActualTransactionActive(false);
+            }
+        }
+    }
+
+    @Test
+    void getConnection_WhenReplicaFails_ShouldFallBackAndSkipIt() throws SQLException {
+        // Given
+        when(replica1.getConnection()).thenThrow(new SQLTransientConnectionException("timeout"));
+        try (ReplicaRoutingDataSource dataSource = routingDataSource()) {
+
+            // When
+            Connection first = DataSourceRouting.replica(() -> targetConnection(dataSource));
+            Connection second = DataSourceRouting.replica(() -> targetConnection(dataSource));
+            Connection third = DataSourceRouting.replica(() -> targetConnection(dataSource));
+
+            // Then
+            assertSame(primaryConnection, first);
+            assertSame(replica2Connection, second);
+            assertSame(replica2Connection, third);
+            verify(replica1, times(1)).getConnection();
+        }
+    }
+
+    @Test
+    void bindTo_ShouldCountRoutesPerPool() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        try (ReplicaRoutingDataSource dataSource = routingDataSource()) {
+            dataSource.bindTo(registry);
+
+            // When
+            targetConnection(dataSource);
+            DataSourceRouting.replica(() -> targetConnection(dataSource));
+
+            // Then
+            assertEquals(1, registry.get(ReplicaRoutingDataSource.METRIC_NAME).tag("pool", "primary").functionCounter().count());
+            assertEquals(1, registry.get(ReplicaRoutingDataSource.METRIC_NAME).tag("pool", "replica-1").functionCounter().count());
+            assertEquals(1, registry.get("datasource.replica.up").tag("pool", "replica-2").gauge().value());
+        }
+    }
+
+    @Test
+    void getConnection_WithCredentials_ShouldReportFeatureNotSupported() throws SQLException {
+        try (ReplicaRoutingDataSource dataSource = routingDataSource()) {
+            // When
+            Connection connection = dataSource.getConnection("user", "password");
+
+            // Then
+            assertThrows(SQLFeatureNotSupportedException.class, connection::createStatement);
+            verify(primary, never()).getConnection();
+        }
+    }
+
+    @Test
+    void close_ShouldCloseAllPools() {
+        // Given
+        ReplicaRoutingDataSource dataSource = routingDataSource();
+
+        // When
+        dataSource.close();
+
+        // Then
+        verify(primary).close();
+        verify(replica1).close();
+        verify(replica2).close();
+    }
+
+    private ReplicaRoutingDataSource routingDataSource() {
+        return new ReplicaRoutingDataSource(primary, List.of(replica1, replica2), routing);
+    }
+
+    private static HikariDataSource pool(String name) {
+        HikariDataSource pool = mock(HikariDataSource.class);
+        when(pool.getPoolName()).thenReturn(name);
+        return pool;
+    }
+
+    // 外层代理在第一次使用连接时才向路由取物理连接
+    private static Connection targetConnection(ReplicaRoutingDataSource dataSource) {
+        try {
+            return ((ConnectionProxy) dataSource.getConnection()).getTargetConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SqlLogInterceptorTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(SqlLogInterceptor.class);
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void intercept_WhenAboveThreshold_ShouldLogStatementAndSql() throws Throwable {
+        // Given
+        SqlLogProperties properties = new SqlLogProperties();
+        properties.setSlowThreshold(Duration.ZERO);
+        Invocation invocation = invocation("SELECT id, name\n    FROM users\n    WHERE id = ?");
+
+        // When
+        new SqlLogInterceptor(properties).intercept(invocation);
+
+        // Then
+        assertEquals(1, appender.list.size());
+        ILoggingEvent event = appender.list.get(0);
+        assertEquals(Level.WARN, event.getLevel());
+        assertTrue(event.getFormattedMessage().contains("statement=com.example.demo.mapper.UserMapper.findById"));
+        assertTrue(event.getFormattedMessage().contains("sql=SELECT id, name FROM users WHERE id = ?"));
+    }
+
+    @Test
+    void intercept_WhenBelowThresholdAndNotSampled_ShouldNotLog() throws Throwable {
+        // Given
+        SqlLogProperties properties = new SqlLogProperties();
+        properties.setSlowThreshold(Duration.ofMinutes(1));
+        properties.setSampleRate(0);
+
+        // When
+        new SqlLogInterceptor(properties).intercept(invocation("SELECT 1"));
+
+        // Then
+        assertTrue(appender.list.isEmpty());
+    }
+
+    @Test
+    void intercept_WhenSampled_ShouldLogAtInfoWithTruncatedSql() throws Throwable {
+        // Given
+        SqlLogProperties properties = new SqlLogProperties();
+        properties.setSlowThreshold(Duration.ofMinutes(1));
+        properties.setSampleRate(1);
+        properties.setMaxSqlLength(8);
+
+        // When
+        new SqlLogInterceptor(properties).intercept(invocation("SELECT * FROM users"));
+
+        // Then
+        assertEquals(1, appender.list.size());
+        assertEquals(Level.INFO, appender.list.get(0).getLevel());
+        assertTrue(appender.list.get(0).getFormattedMessage().endsWith("sql=SELECT *..."));
+    }
+
+    private static Invocation invocation(String sql) throws Exception {
+        Configuration configuration = new Configuration();
+        MappedStatement statement = new MappedStatement.Builder(configuration,
+                "com.example.demo.mapper.UserMapper.findById",
+                new StaticSqlSource(configuration, sql), SqlCommandType.SELECT).build();
+        Invocation invocation = mock(Invocation.class);
+        when(invocation.getArgs()).thenReturn(new Object[]{statement, null});
+        when(invocation.proceed()).thenReturn(null);
+        return invocation;
+    }
+}
@@ -1,23 +1,83 @@
 package com.example.demo.controller;
 
+import com.example.demo.algorithm.AlgorithmResultCache;
+import com.example.demo.algorithm.PrimeEngine;
+import com.example.demo.algorithm.SearchEngine;
+import com.example.demo.algorithm.SequenceEngine;
+import com.example.demo.algorithm.SortEngine;
+import com.example.demo.algorithm.SortedArrayRegistry;
+import com.example.demo.algorithm.SortStrategy;
+import com.example.demo.config.AlgorithmProperties;
 import com.example.demo.controller.AlgorithmController.BinarySearchResult;
+import com.example.demo.controller.AlgorithmController.ErrorResult;
 import com.example.demo.controller.AlgorithmController.FactorialResult;
 import com.example.demo.controller.AlgorithmController.FibonacciResult;
+import com.example.demo.controller.AlgorithmController.FibonacciTermResult;
+import com.example.demo.controller.AlgorithmController.LookupResult;
+import com.example.demo.controller.AlgorithmController.PrimeRangeResult;
 import com.example.demo.controller.AlgorithmController.PrimeResult;
 import com.example.demo.controller.AlgorithmController.SortResult;
+import com.example.demo.controller.AlgorithmController.SortedArrayInfo;
+import com.example.demo.service.AlgorithmMetrics;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 class AlgorithmControllerTest {
 
+    @Spy
+    private SortEngine sortEngine = new SortEngine();
+
+    @Spy
+    private SearchEngine searchEngine = new SearchEngine();
+
+    @Spy
+    private PrimeEngine primeEngine = new PrimeEngine();
+
+    @Spy
+    private SequenceEngine sequenceEngine = new SequenceEngine();
+
+    @Spy
+    private AlgorithmProperties algorithmProperties = new AlgorithmProperties();
+
+    @Spy
+    private SortedArrayRegistry sortedArrayRegistry = new SortedArrayRegistry(new SortEngine(), new AlgorithmProperties());
+
+    @Spy
+    private AlgorithmResultCache resultCache =
+            new AlgorithmResultCache(new PrimeEngine(), new SequenceEngine(), new AlgorithmProperties());
+
+    @Spy
+    private AlgorithmMetrics algorithmMetrics = new AlgorithmMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private AlgorithmController algorithmController;
 
@@ -28,7 +88,7 @@ class AlgorithmControllerTest {
         int target = 7;
 
         // When
-        ResponseEntity<BinarySearchResult> response = algorithmController.binarySearch(array, target);
+        ResponseEntity<BinarySearchResult> response = algorithmController.binarySearch(array, target, true);
 
         // Then
         assertEquals(200, response.getStatusCodeValue());
@@ -44,7 +104,7 @@ class AlgorithmControllerTest {
         int target = 4;
 
         // When
-        ResponseEntity<BinarySearchResult> response = algorithmController.binarySearch(array, target);
+        ResponseEntity<BinarySearchResult> response = algorithmController.binarySearch(array, target, true);
 
         // Then
         assertEquals(200, response.getStatusCodeValue());
@@ -52,13 +112,64 @@ class AlgorithmControllerTest {
         assertEquals(-1, response.getBody().getIndex());
     }
 
+    @Test
+    void binarySearch_ShouldNotSortCallerArray() {
+        // Given
+        int[] array = {9, 1, 5};
+
+        // When
+        ResponseEntity<BinarySearchResult> response = algorithmController.binarySearch(array, 5, true);
+
+        // Then
+        assertNotNull(response.getBody());
+        assertEquals(1, response.getBody().getIndex());
+        assertArrayEquals(new int[]{9, 1, 5}, response.getBody().getOriginalArray());
+    }
+
+    @Test
+    void binarySearch_WhenOriginalExcluded_ShouldOmitOriginalArray() {
+        // When
+        ResponseEntity<BinarySearchResult> response = algorithmController.binarySearch(new int[]{9, 1, 5}, 9, false);
+
+        // Then
+        assertNotNull(response.getBody());
+        assertEquals(2, response.getBody().getIndex());
+        assertNull(response.getBody().getOriginalArray());
+    }
+
+    @Test
+    void sortedArrays_ShouldSearchRegisteredArrayUntilDeleted() {
+        // Given
+        int[] array = {7, 3, 3, 9, 1};
+        ResponseEntity<SortedArrayInfo> created = algorithmController.createSortedArray(array, true);
+        assertEquals(201, created.getStatusCodeValue());
+        assertNotNull(created.getBody());
+        String id = created.getBody().getId();
+
+        // When
+        ResponseEntity<LookupResult> single = algorithmController.searchSortedArray(id, 3);
+        ResponseEntity<List<LookupResult>> batch = algorithmController.batchSearchSortedArray(id, new int[]{0, 4, 9});
+
+        // Then
+        assertArrayEquals(new int[]{7, 3, 3, 9, 1}, array);
+        assertEquals(new LookupResult(3, 1, 3, true), single.getBody());
+        assertEquals(List.of(
+                new LookupResult(0, 0, 0, false),
+                new LookupResult(4, 3, 3, false),
+                new LookupResult(9, 4, 5, true)), batch.getBody());
+
+        assertEquals(204, algorithmController.deleteSortedArray(id).getStatusCodeValue());
+        assertEquals(404, algorithmController.searchSortedArray(id, 3).getStatusCodeValue());
+        assertEquals(404, algorithmController.deleteSortedArray(id).getStatusCodeValue());
+    }
+
     @Test
     void quickSort_ShouldReturnSortedArray() {
         // Given
         int[] array = {64, 34, 25, 12, 22, 11, 90};
 
         // When
-        ResponseEntity<SortResult> response = algorithmController.quickSort(array);
+        ResponseEntity<SortResult> response = algorithmController.quickSort(array, SortStrategy.AUTO, true);
 
         // Then
         assertEquals(200, response.getStatusCodeValue());
@@ -69,13 +180,64 @@ class AlgorithmControllerTest {
         assertArrayEquals(new int[]{11, 12, 22, 25, 34, 64, 90}, sortedArray);
     }
 
+    @Test
+    void quickSort_WithStrategy_ShouldReportStrategyUsed() {
+        // Given
+        int[] array = {5, -3, 9, 0, 5, 2};
+
+        // When
+        ResponseEntity<SortResult> response = algorithmController.quickSort(array, SortStrategy.RADIX, true);
+
+        // Then
+        assertEquals(200, response.getStatusCodeValue());
+        assertNotNull(response.getBody());
+        assertEquals(SortStrategy.RADIX, response.getBody().getStrategy());
+        assertArrayEquals(new int[]{-3, 0, 2, 5, 5, 9}, response.getBody().getSortedArray());
+        assertArrayEquals(new int[]{5, -3, 9, 0, 5, 2}, response.getBody().getOriginalArray());
+    }
+
+    @Test
+    void quickSort_WhenOriginalExcluded_ShouldOmitOriginalArray() throws Exception {
+        // When
+        ResponseEntity<SortResult> response = algorithmController.quickSort(new int[]{3, 1, 2}, SortStrategy.AUTO, false);
+
+        // Then
+        assertNotNull(response.getBody());
+        assertNull(response.getBody().getOriginalArray());
+        assertFalse(objectMapper.writeValueAsString(response.getBody()).contains("originalArray"));
+    }
+
+    @Test
+    void quickSortBinary_ShouldReturnSortedArrayWithStrategyHeader() {
+        // When
+        ResponseEntity<int[]> response = algorithmController.quickSortBinary(new int[]{3, -1, 2}, SortStrategy.INTROSORT);
+
+        // Then
+        assertEquals(200, response.getStatusCodeValue());
+        assertArrayEquals(new int[]{-1, 2, 3}, response.getBody());
+        assertEquals("INTROSORT", response.getHeaders().getFirst("X-Sort-Strategy"));
+        assertNotNull(response.getHeaders().getFirst("X-Cpu-Time-Nanos"));
+    }
+
+    @Test
+    void bubbleSortBinary_WhenAboveMaxSizeAndFallbackDisabled_ShouldReturnBadRequest() {
+        // Given
+        algorithmProperties.getBubbleSort().setMaxSize(2);
+
+        // When
+        ResponseEntity<int[]> response = algorithmController.bubbleSortBinary(new int[]{3, 1, 2}, false);
+
+        // Then
+        assertEquals(400, response.getStatusCodeValue());
+    }
+
     @Test
     void bubbleSort_ShouldReturnSortedArray() {
         // Given
         int[] array = {64, 34, 25, 12, 22, 11, 90};
 
         // When
-        ResponseEntity<SortResult> response = algorithmController.bubbleSort(array);
+        ResponseEntity<SortResult> response = algorithmController.bubbleSort(array, null, true);
 
         // Then
         assertEquals(200, response.getStatusCodeValue());
@@ -86,6 +248,76 @@ class AlgorithmControllerTest {
         assertArrayEquals(new int[]{11, 12, 22, 25, 34, 64, 90}, sortedArray);
     }
 
+    @Test
+    void bubbleSort_ShouldReportCpuTime() {
+        // When
+        ResponseEntity<SortResult> response = algorithmController.bubbleSort(new int[]{3, 1, 2}, null, true);
+
+        // Then
+        assertNotNull(response.getBody());
+        assertNotNull(response.getBody().getCpuTimeNanos());
+        assertTrue(response.getBody().getCpuTimeNanos() >= 0);
+    }
+
+    @Test
+    void bubbleSort_WhenOriginalExcluded_ShouldOmitOriginalArray() {
+        // When
+        ResponseEntity<SortResult> response = algorithmController.bubbleSort(new int[]{3, 1, 2}, null, false);
+
+        // Then
+        assertNotNull(response.getBody());
+        assertArrayEquals(new int[]{1, 2, 3}, response.getBody().getSortedArray());
+        assertNull(response.getBody().getOriginalArray());
+    }
+
+    @Test
+    void bubbleSort_WhenAboveMaxSize_ShouldFallBackToSortEngine() {
+        // Given
+        algorithmProperties.getBubbleSort().setMaxSize(4);
+        int[] array = {5, 4, 3, 2, 1};
+
+        // When
+        ResponseEntity<SortResult> response = algorithmController.bubbleSort(array, null, true);
+
+        // Then
+        assertEquals(200, response.getStatusCodeValue());
+        assertNotNull(response.getBody());
+        assertEquals("bubbleSort", response.getBody().getAlgorithm());
+        assertNotNull(response.getBody().getStrategy());
+        assertArrayEquals(new int[]{1, 2, 3, 4, 5}, response.getBody().getSortedArray());
+        verify(sortEngine, never()).bubbleSort(any());
+        verify(algorithmMetrics).record(eq("bubbleSort"), eq(response.getBody().getStrategy().name()), eq(5L), anyLong());
+    }
+
+    @Test
+    void bubbleSort_WhenAboveMaxSizeAndFallbackDisabled_ShouldReturnBadRequest() {
+        // Given
+        algorithmProperties.getBubbleSort().setMaxSize(4);
+        algorithmProperties.getBubbleSort().setAutoFallback(false);
+
+        // When
+        ResponseEntity<SortResult> response = algorithmController.bubbleSort(new int[]{5, 4, 3, 2, 1}, null, true);
+
+        // Then
+        assertEquals(400, response.getStatusCodeValue());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void bubbleSort_WhenAboveMaxSizeAndFallbackRequested_ShouldSort() {
+        // Given
+        algorithmProperties.getBubbleSort().setMaxSize(4);
+        algorithmProperties.getBubbleSort().setAutoFallback(false);
+
+        // When
+        ResponseEntity<SortResult> response = algorithmController.bubbleSort(new int[]{5, 4, 3, 2, 1}, true, true);
+
+        // Then
+        assertEquals(200, response.getStatusCodeValue());
+        assertNotNull(response.getBody());
+        assertArrayEquals(new int[]{1, 2, 3, 4, 5}, response.getBody().getSortedArray());
+    }
+
     @Test
     void fibonacci_ShouldReturnCorrectSequence() {
         // Given
@@ -99,9 +331,43 @@ class AlgorithmControllerTest {
         assertNotNull(response.getBody());
         assertEquals(n, response.getBody().getN());
         
-        List<Integer> sequence = response.getBody().getSequence();
+        List<BigInteger> sequence = response.getBody().getSequence();
         assertEquals(10, sequence.size());
-        assertEquals(List.of(0, 1, 1, 2, 3, 5, 8, 13, 21, 34), sequence);
+        assertEquals(List.of(0, 1, 1, 2, 3, 5, 8, 13, 21, 34),
+                sequence.stream().map(BigInteger::intValueExact).collect(Collectors.toList()));
+    }
+
+    @Test
+    void fibonacci_WhenLargerThan46_ShouldNotOverflow() {
+        // When
+        ResponseEntity<FibonacciResult> response = algorithmController.fibonacci(100);
+
+        // Then
+        assertEquals(200, response.getStatusCodeValue());
+        assertNotNull(response.getBody());
+        assertEquals(new BigInteger("218922995834555169026"), response.getBody().getSequence().get(99));
+    }
+
+    @Test
+    void fibonacci_WhenLengthAboveLimit_ShouldReturnBadRequest() {
+        // When
+        ResponseEntity<FibonacciResult> response =
+                algorithmController.fibonacci(AlgorithmController.MAX_FIBONACCI_LENGTH + 1);
+
+        // Then
+        assertEquals(400, response.getStatusCodeValue());
+    }
+
+    @Test
+    void fibonacciTerm_ShouldMatchSequence() {
+        // When
+        ResponseEntity<FibonacciTermResult> response = algorithmController.fibonacciTerm(99);
+
+        // Then
+        assertEquals(200, response.getStatusCodeValue());
+        assertNotNull(response.getBody());
+        assertEquals(algorithmController.fibonacci(100).getBody().getSequence().get(99),
+                response.getBody().getValue());
     }
 
     @Test
@@ -117,6 +383,20 @@ class AlgorithmControllerTest {
         assertNull(response.getBody());
     }
 
+    @Test
+    void streamFibonacci_ShouldWriteSameSequenceAsFibonacci() throws Exception {
+        // When
+        ResponseEntity<StreamingResponseBody> response = algorithmController.streamFibonacci(10);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        // Then
+        JsonNode body = objectMapper.readTree(out.toByteArray());
+        assertEquals(10, body.get("n").asInt());
+        assertEquals(objectMapper.writeValueAsString(algorithmController.fibonacci(10).getBody().getSequence()),
+                body.get("sequence").toString());
+    }
+
     @Test
     void primeNumbers_ShouldReturnCorrectPrimes() {
         // Given
@@ -130,8 +410,8 @@ class AlgorithmControllerTest {
         assertNotNull(response.getBody());
         assertEquals(limit, response.getBody().getLimit());
         
-        List<Integer> primes = response.getBody().getPrimes();
-        assertEquals(List.of(2, 3, 5, 7, 11, 13, 17, 19, 23, 29), primes);
+        int[] primes = response.getBody().getPrimes();
+        assertArrayEquals(new int[]{2, 3, 5, 7, 11, 13, 17, 19, 23, 29}, primes);
     }
 
     @Test
@@ -145,7 +425,116 @@ class AlgorithmControllerTest {
         // Then
         assertEquals(200, response.getStatusCodeValue());
         assertNotNull(response.getBody());
-        assertTrue(response.getBody().getPrimes().isEmpty());
+        assertEquals(0, response.getBody().getPrimes().length);
+    }
+
+    @Test
+    void primeNumbers_WhenLimitAboveMax_ShouldReturnBadRequestPointingToStream() {
+        // When
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> algorithmController.primeNumbers(Integer.MAX_VALUE));
+        ResponseEntity<ErrorResult> response = algorithmController.handleResponseStatus(e);
+
+        // Then
+        assertEquals(400, response.getStatusCodeValue());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertNotNull(response.getBody());
+        assertEquals(400, response.getBody().getStatus());
+        assertTrue(response.getBody().getMessage().contains("/api/algorithms/primeNumbers/stream"));
+        verify(resultCache, never()).primesUpTo(anyInt());
+    }
+
+    @Test
+    void streamPrimeNumbers_ShouldWriteSamePrimesAsPrimeNumbersWithoutCaching() throws Exception {
+        // When
+        ResponseEntity<StreamingResponseBody> response = algorithmController.streamPrimeNumbers(1_000_000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        // Then
+        JsonNode body = objectMapper.readTree(out.toByteArray());
+        assertEquals(1_000_000, body.get("limit").asInt());
+        assertEquals(78498, body.get("count").asLong());
+        assertEquals(objectMapper.writeValueAsString(resultCache.primesUpTo(1_000_000)), body.get("primes").toString());
+        verify(resultCache, times(1)).primesUpTo(anyInt());
+    }
+
+    @Test
+    void streamPrimeNumbers_WhenLimitLessThan2_ShouldWriteEmptyList() throws Exception {
+        // When
+        ResponseEntity<StreamingResponseBody> response = algorithmController.streamPrimeNumbers(1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        // Then
+        JsonNode body = objectMapper.readTree(out.toByteArray());
+        assertEquals(0, body.get("count").asLong());
+        assertEquals(0, body.get("primes").size());
+    }
+
+    @Test
+    void primeNumbersInRange_WhenRangeTooWide_ShouldReturnBadRequestUnlessCountOnly() {
+        // When
+        ResponseStatusException wide = assertThrows(ResponseStatusException.class,
+                () -> algorithmController.primeNumbersInRange(0, AlgorithmController.MAX_PRIME_RANGE + 2, false));
+        ResponseEntity<PrimeRangeResult> atMax = algorithmController.primeNumbersInRange(
+                Integer.MIN_VALUE, AlgorithmController.MAX_PRIME_RANGE + 1, false);
+        ResponseEntity<PrimeRangeResult> counted = algorithmController.primeNumbersInRange(
+                Integer.MAX_VALUE - AlgorithmController.MAX_PRIME_RANGE - 1, Integer.MAX_VALUE, true);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, wide.getStatus());
+        assertTrue(wide.getReason().contains("countOnly=true"));
+        assertEquals(200, atMax.getStatusCodeValue());
+        assertEquals(200, counted.getStatusCodeValue());
+    }
+
+    @Test
+    void primeNumbersInRange_ShouldReturnPrimesBetweenBounds() {
+        // When
+        ResponseEntity<PrimeRangeResult> response = algorithmController.primeNumbersInRange(10, 30, false);
+
+        // Then
+        assertEquals(200, response.getStatusCodeValue());
+        assertNotNull(response.getBody());
+        assertEquals(6, response.getBody().getCount());
+        assertArrayEquals(new int[]{11, 13, 17, 19, 23, 29}, response.getBody().getPrimes());
+    }
+
+    @Test
+    void primeNumbersInRange_WhenCountOnly_ShouldOmitPrimes() {
+        // When
+        ResponseEntity<PrimeRangeResult> response = algorithmController.primeNumbersInRange(1, 1_000_000, true);
+
+        // Then
+        assertEquals(200, response.getStatusCodeValue());
+        assertNotNull(response.getBody());
+        assertEquals(78498, response.getBody().getCount());
+        assertNull(response.getBody().getPrimes());
+    }
+
+    @Test
+    void streamPrimeNumbersInRange_ShouldWritePrimesAndCount() throws Exception {
+        // When
+        ResponseEntity<StreamingResponseBody> response = algorithmController.streamPrimeNumbersInRange(1, 1_000_000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        // Then
+        JsonNode body = objectMapper.readTree(out.toByteArray());
+        assertEquals(78498, body.get("count").asLong());
+        assertEquals(78498, body.get("primes").size());
+        assertEquals(2, body.get("primes").get(0).asInt());
+        assertEquals(999983, body.get("primes").get(78497).asInt());
+    }
+
+    @Test
+    void streamPrimeNumbersInRange_WhenFromGreaterThanTo_ShouldReturnBadRequest() {
+        // When
+        ResponseEntity<StreamingResponseBody> response = algorithmController.streamPrimeNumbersInRange(10, 5);
+
+        // Then
+        assertEquals(400, response.getStatusCodeValue());
     }
 
     @Test
@@ -160,7 +549,18 @@ class AlgorithmControllerTest {
         assertEquals(200, response.getStatusCodeValue());
         assertNotNull(response.getBody());
         assertEquals(n, response.getBody().getN());
-        assertEquals(120, response.getBody().getResult()); // 5! = 120
+        assertEquals(BigInteger.valueOf(120), response.getBody().getResult()); // 5! = 120
+    }
+
+    @Test
+    void factorial_WhenLargerThan20_ShouldNotOverflow() {
+        // When
+        ResponseEntity<FactorialResult> response = algorithmController.factorial(25);
+
+        // Then
+        assertEquals(200, response.getStatusCodeValue());
+        assertNotNull(response.getBody());
+        assertEquals(new BigInteger("15511210043330985984000000"), response.getBody().getResult());
     }
 
     @Test
@@ -174,7 +574,7 @@ class AlgorithmControllerTest {
         // Then
         assertEquals(200, response.getStatusCodeValue());
         assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().getResult()); // 0! = 1
+        assertEquals(BigInteger.ONE, response.getBody().getResult()); // 0! = 1
     }
 
     @Test
@@ -189,4 +589,21 @@ class AlgorithmControllerTest {
         assertEquals(400, response.getStatusCodeValue());
         assertNull(response.getBody());
     }
-}
\ No newline at end of file
+
+    @Test
+    void primeNumbers_WhenSmallerLimitRequested_ShouldBeServedFromCache() {
+        // Given
+        algorithmController.primeNumbers(1000);
+
+        // When
+        ResponseEntity<PrimeResult> response = algorithmController.primeNumbers(30);
+        AlgorithmResultCache.ResultCacheStats stats = algorithmController.getCacheStats().getBody();
+
+        // Then
+        assertNotNull(response.getBody());
+        assertArrayEquals(new int[]{2, 3, 5, 7, 11, 13, 17, 19, 23, 29}, response.getBody().getPrimes());
+        assertNotNull(stats);
+        assertEquals(1, stats.getPrimes().getHitCount());
+        assertEquals(1, stats.getPrimes().getMissCount());
+    }
+}
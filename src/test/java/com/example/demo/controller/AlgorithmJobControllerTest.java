@@ -0,0 +1,119 @@
+package com.example.demo.controller;
+
+import com.example.demo.algorithm.AlgorithmResultCache;
+import com.example.demo.algorithm.PrimeEngine;
+import com.example.demo.algorithm.SequenceEngine;
+import com.example.demo.algorithm.SortEngine;
+import com.example.demo.algorithm.SortStrategy;
+import com.example.demo.config.AlgorithmProperties;
+import com.example.demo.controller.AlgorithmController.FactorialResult;
+import com.example.demo.service.AlgorithmJob;
+import com.example.demo.service.AlgorithmJobService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.math.BigInteger;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+
+@ExtendWith(MockitoExtension.class)
+class AlgorithmJobControllerTest {
+
+    @Spy
+    private AlgorithmJobService jobService = new AlgorithmJobService(new AlgorithmProperties());
+
+    @Spy
+    private SortEngine sortEngine = new SortEngine();
+
+    @Spy
+    private AlgorithmResultCache resultCache =
+            new AlgorithmResultCache(new PrimeEngine(), new SequenceEngine(), new AlgorithmProperties());
+
+    @InjectMocks
+    private AlgorithmJobController jobController;
+
+    @AfterEach
+    void tearDown() {
+        jobService.shutdown();
+    }
+
+    @Test
+    void submitFactorial_ShouldReturnAcceptedAndCompleteInBackground() throws Exception {
+        // When
+        ResponseEntity<AlgorithmJob> response = jobController.submitFactorial(25, AlgorithmJob.Priority.HIGH);
+
+        // Then
+        assertEquals(202, response.getStatusCodeValue());
+        AlgorithmJob job = response.getBody();
+        assertNotNull(job);
+        job.getCompletion().get(5, TimeUnit.SECONDS);
+        assertEquals(AlgorithmJob.Status.SUCCEEDED, job.getStatus());
+        assertEquals(new BigInteger("15511210043330985984000000"), ((FactorialResult) job.getResult()).getResult());
+    }
+
+    @Test
+    void getJob_WithWait_ShouldResolveWhenJobFinishes() throws Exception {
+        // Given
+        AlgorithmJob job = jobController.submitSort(new int[]{3, 1, 2}, SortStrategy.AUTO, AlgorithmJob.Priority.NORMAL)
+                .getBody();
+        assertNotNull(job);
+
+        // When
+        DeferredResult<ResponseEntity<AlgorithmJob>> result = jobController.getJob(job.getId(), 5000);
+        job.getCompletion().get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(result.hasResult());
+        @SuppressWarnings("unchecked")
+        ResponseEntity<AlgorithmJob> response = (ResponseEntity<AlgorithmJob>) result.getResult();
+        assertNotNull(response.getBody());
+        assertArrayEquals(new int[]{1, 2, 3}, (int[]) response.getBody().getResult());
+    }
+
+    @Test
+    void getJob_WhenUnknown_ShouldReturnNotFound() {
+        // When
+        DeferredResult<ResponseEntity<AlgorithmJob>> result = jobController.getJob("missing", 1000);
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ResponseEntity<AlgorithmJob> response = (ResponseEntity<AlgorithmJob>) result.getResult();
+        assertEquals(404, response.getStatusCodeValue());
+    }
+
+    @Test
+    void submit_WhenQueueFull_ShouldReturnServiceUnavailable() {
+        // Given
+        doThrow(new RejectedExecutionException("Job queue is full"))
+                .when(jobService).submit(anyString(), any(), any());
+
+        // When
+        ResponseEntity<AlgorithmJob> response = jobController.submitPrimes(1, 100, true, AlgorithmJob.Priority.LOW);
+
+        // Then
+        assertEquals(503, response.getStatusCodeValue());
+    }
+
+    @Test
+    void cancelJob_WhenRunning_ShouldReturnConflict() {
+        // Given
+        doThrow(new IllegalStateException("Job is already running")).when(jobService).cancel("running");
+
+        // When
+        ResponseEntity<Void> response = jobController.cancelJob("running");
+
+        // Then
+        assertEquals(409, response.getStatusCodeValue());
+    }
+}
@@ -1,20 +1,34 @@
 package com.example.demo.controller;
 
 import com.example.demo.entity.User;
+import com.example.demo.entity.UserSearchHit;
+import com.example.demo.service.UserCopyService;
+import com.example.demo.service.UserRepartitionService;
 import com.example.demo.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -27,6 +41,15 @@ class UserControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private UserCopyService userCopyService;
+
+    @Mock
+    private UserRepartitionService userRepartitionService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
     @InjectMocks
     private UserController userController;
 
@@ -59,6 +82,58 @@ class UserControllerTest {
         verify(userService, times(1)).getAllUsers();
     }
 
+    @Test
+    void getUsersPage_WhenPageIsFull_ShouldReturnNextCursor() {
+        // Given
+        User olderUser = new User();
+        olderUser.setId(0L);
+        when(userService.getUsersPage(5L, 2)).thenReturn(Arrays.asList(testUser, olderUser));
+
+        // When
+        ResponseEntity<UserController.UserPage> response = userController.getUsersPage(5L, 2);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(2, response.getBody().getUsers().size());
+        assertEquals(0L, response.getBody().getNextCursor());
+    }
+
+    @Test
+    void getUsersPage_WhenLastPage_ShouldReturnNullCursor() {
+        // Given
+        when(userService.getUsersPage(null, UserService.MAX_PAGE_SIZE)).thenReturn(Arrays.asList(testUser));
+
+        // When
+        ResponseEntity<UserController.UserPage> response = userController.getUsersPage(null, 100000);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertNull(response.getBody().getNextCursor());
+    }
+
+    @Test
+    void streamAllUsers_ShouldWriteJsonArray() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            Consumer<User> consumer = invocation.getArgument(0);
+            consumer.accept(testUser);
+            consumer.accept(testUser);
+            return null;
+        }).when(userService).streamAllUsers(ArgumentMatchers.<Consumer<User>>any());
+
+        // When
+        ResponseEntity<StreamingResponseBody> response = userController.streamAllUsers();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        // Then
+        User[] users = objectMapper.readValue(out.toString(StandardCharsets.UTF_8), User[].class);
+        assertEquals(2, users.length);
+        assertEquals("张三", users[0].getName());
+    }
+
     @Test
     void getUserById_WhenUserExists_ShouldReturnUser() {
         // Given
@@ -117,20 +192,78 @@ class UserControllerTest {
         verify(userService, times(1)).getUserByEmail("nonexistent@example.com");
     }
 
+    @Test
+    void getUsersByIds_ShouldReturnItemsInRequestOrder() {
+        // Given
+        List<UserService.MultiGetItem<Long>> items = List.of(
+                new UserService.MultiGetItem<>(999L, false, null),
+                new UserService.MultiGetItem<>(1L, true, testUser));
+        when(userService.getUsersByIds(List.of(999L, 1L))).thenReturn(items);
+
+        // When
+        ResponseEntity<List<UserService.MultiGetItem<Long>>> response = userController.getUsersByIds(List.of(999L, 1L));
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(items, response.getBody());
+    }
+
+    @Test
+    void getUsersByEmails_WhenKeysRejected_ShouldReturnBadRequest() {
+        // Given
+        when(userService.getUsersByEmails(List.of()))
+                .thenThrow(new RuntimeException("Between 1 and 1000 keys are required"));
+
+        // When
+        ResponseEntity<List<UserService.MultiGetItem<String>>> response = userController.getUsersByEmails(List.of());
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
     @Test
     void getUsersByName_WhenUsersExist_ShouldReturnUserList() {
         // Given
         List<User> userList = Arrays.asList(testUser);
-        when(userService.getUsersByNameContaining("张")).thenReturn(userList);
+        when(userService.getUsersByNameContaining("张", null)).thenReturn(userList);
 
         // When
-        ResponseEntity<List<User>> response = userController.getUsersByName("张");
+        ResponseEntity<List<User>> response = userController.getUsersByName("张", null);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(1, response.getBody().size());
-        verify(userService, times(1)).getUsersByNameContaining("张");
+        verify(userService, times(1)).getUsersByNameContaining("张", null);
+    }
+
+    @Test
+    void searchUsers_WhenPageIsFull_ShouldReturnNextCursor() {
+        // Given
+        List<UserSearchHit> hits = List.of(new UserSearchHit(testUser, 0.75));
+        when(userService.searchUsersByName("zhang", null, null, 1)).thenReturn(hits);
+
+        // When
+        ResponseEntity<UserController.UserSearchPage> response = userController.searchUsers("zhang", null, null, 1);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(0.75, response.getBody().getNextScore());
+        assertEquals(1L, response.getBody().getNextId());
+    }
+
+    @Test
+    void searchUsers_WhenQueryRejected_ShouldReturnBadRequest() {
+        // Given
+        when(userService.searchUsersByName("张", null, null, 20))
+                .thenThrow(new RuntimeException("Query must be at least 3 characters"));
+
+        // When
+        ResponseEntity<UserController.UserSearchPage> response = userController.searchUsers("张", null, null, 20);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
 
     @Test
@@ -176,6 +309,152 @@ class UserControllerTest {
         verify(userService, times(1)).createUser(any(User.class));
     }
 
+    @Test
+    void createUsersNdjson_ShouldParseEachLine() throws Exception {
+        // Given
+        String body = "{\"name\":\"李四\",\"email\":\"lisi@example.com\"}\n"
+                + "{\"name\":\"王五\",\"email\":\"wangwu@example.com\"}\n";
+        when(userService.createUsers(ArgumentMatchers.<Iterator<User>>any())).thenAnswer(invocation -> {
+            Iterator<User> users = invocation.getArgument(0);
+            List<UserService.BatchItemResult> results = new ArrayList<>();
+            while (users.hasNext()) {
+                users.next();
+                results.add(new UserService.BatchItemResult(results.size(), (long) results.size() + 1, null));
+            }
+            return results;
+        });
+
+        // When
+        ResponseEntity<List<UserService.BatchItemResult>> response = userController.createUsersNdjson(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(2, response.getBody().size());
+    }
+
+    @Test
+    void createUsersNdjson_WhenLineMalformed_ShouldReportErrorForThatLineOnly() throws Exception {
+        // Given
+        String body = "{\"name\":\"李四\",\"email\":\"lisi@example.com\"}\n"
+                + "{not json\n"
+                + "\n"
+                + "{\"name\":\"王五\",\"email\":\"wangwu@example.com\"}\n";
+        when(userService.createUsers(ArgumentMatchers.<Iterator<User>>any())).thenAnswer(invocation -> {
+            Iterator<User> users = invocation.getArgument(0);
+            List<UserService.BatchItemResult> results = new ArrayList<>();
+            while (users.hasNext()) {
+                int index = results.size();
+                try {
+                    users.next();
+                    results.add(new UserService.BatchItemResult(index, (long) index + 1, null));
+                } catch (UserService.InvalidBatchItemException e) {
+                    results.add(new UserService.BatchItemResult(index, null, e.getMessage()));
+                }
+            }
+            return results;
+        });
+
+        // When
+        ResponseEntity<List<UserService.BatchItemResult>> response = userController.createUsersNdjson(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(3, response.getBody().size());
+        assertEquals(1L, response.getBody().get(0).getId());
+        assertTrue(response.getBody().get(1).getError().startsWith("Invalid JSON"));
+        assertEquals(3L, response.getBody().get(2).getId());
+    }
+
+    @Test
+    void createUsersNdjson_WhenDatabaseFailsMidway_ShouldReturnProcessedRowsWithServerError() {
+        // Given
+        List<UserService.BatchItemResult> completed = List.of(
+                new UserService.BatchItemResult(0, 1L, null),
+                new UserService.BatchItemResult(1, null, "Not processed: connection lost"));
+        when(userService.createUsers(ArgumentMatchers.<Iterator<User>>any())).thenThrow(
+                new UserService.BatchAbortedException(completed, new DataAccessResourceFailureException("connection lost")));
+
+        // When
+        ResponseEntity<List<UserService.BatchItemResult>> response = userController.createUsersNdjson(
+                new ByteArrayInputStream(new byte[0]));
+
+        // Then
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals(completed, response.getBody());
+    }
+
+    @Test
+    void repartition_WhenStarted_ShouldReturnAccepted() {
+        // Given
+        UserRepartitionService.RepartitionStatus status = new UserRepartitionService.RepartitionStatus(
+                UserRepartitionService.State.RUNNING, UserRepartitionService.Phase.PREPARING, 32,
+                0, 0, 0, LocalDateTime.now(), null, null);
+        when(userRepartitionService.start(32)).thenReturn(status);
+
+        // When
+        ResponseEntity<UserRepartitionService.RepartitionStatus> response = userController.repartition(32);
+
+        // Then
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertSame(status, response.getBody());
+    }
+
+    @Test
+    void repartition_WhenAlreadyRunning_ShouldReturnConflict() {
+        // Given
+        when(userRepartitionService.start(32)).thenThrow(new IllegalStateException("Re-partitioning is already running"));
+
+        // When
+        ResponseEntity<UserRepartitionService.RepartitionStatus> response = userController.repartition(32);
+
+        // Then
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    void repartition_WhenPartitionsInvalid_ShouldReturnBadRequest() {
+        // Given
+        when(userRepartitionService.start(0)).thenThrow(new IllegalArgumentException("Partitions must be between 1 and 1024"));
+
+        // When
+        ResponseEntity<UserRepartitionService.RepartitionStatus> response = userController.repartition(0);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void importUsersCsv_WhenImportFails_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(userCopyService.importCsv(any())).thenThrow(new RuntimeException("Import failed"));
+
+        // When
+        ResponseEntity<UserCopyService.ImportResult> response = userController.importUsersCsv(
+                new ByteArrayInputStream(new byte[0]));
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void exportUsers_ShouldStreamFromCopyService() throws Exception {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        when(userCopyService.exportCsv(out)).thenReturn(0L);
+
+        // When
+        ResponseEntity<StreamingResponseBody> response = userController.exportUsers();
+        response.getBody().writeTo(out);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(userCopyService, times(1)).exportCsv(out);
+    }
+
     @Test
     void updateUser_WhenValidUpdate_ShouldReturnUpdatedUser() {
         // Given
@@ -0,0 +1,193 @@
+package com.example.demo.service;
+
+import com.example.demo.config.AlgorithmProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlgorithmJobServiceTest {
+
+    private AlgorithmJobService jobService;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        AlgorithmProperties properties = new AlgorithmProperties();
+        properties.getJobs().setThreads(1);
+        properties.getJobs().setQueueCapacity(3);
+        properties.getJobs().setMaxWait(Duration.ofSeconds(5));
+        jobService = new AlgorithmJobService(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        jobService.shutdown();
+    }
+
+    @Test
+    void submit_ShouldRunJobAndKeepResult() throws Exception {
+        // When
+        AlgorithmJob job = jobService.submit("test", AlgorithmJob.Priority.NORMAL, () -> 42);
+        job.getCompletion().get(5, TimeUnit.SECONDS);
+
+        // Then
+        AlgorithmJob stored = jobService.getJob(job.getId()).orElseThrow();
+        assertEquals(AlgorithmJob.Status.SUCCEEDED, stored.getStatus());
+        assertEquals(42, stored.getResult());
+        assertNotNull(stored.getFinishedAt());
+    }
+
+    @Test
+    void submit_WhenComputationThrows_ShouldMarkFailed() throws Exception {
+        // When
+        AlgorithmJob job = jobService.submit("test", AlgorithmJob.Priority.NORMAL, () -> {
+            throw new IllegalStateException("boom");
+        });
+        job.getCompletion().get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(AlgorithmJob.Status.FAILED, job.getStatus());
+        assertEquals("boom", job.getError());
+    }
+
+    @Test
+    void queuedJobs_ShouldRunByPriorityThenSubmissionOrder() throws Exception {
+        // Given
+        List<String> order = new CopyOnWriteArrayList<>();
+        waitForRunning(jobService.submit("blocker", AlgorithmJob.Priority.NORMAL, this::awaitRelease));
+        jobService.submit("low", AlgorithmJob.Priority.LOW, () -> order.add("low"));
+        jobService.submit("normal", AlgorithmJob.Priority.NORMAL, () -> order.add("normal"));
+        AlgorithmJob last = jobService.submit("high", AlgorithmJob.Priority.HIGH, () -> order.add("high"));
+
+        // When
+        release.countDown();
+        waitForQueueToDrain();
+        last.getCompletion().get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(List.of("high", "normal", "low"), order);
+    }
+
+    @Test
+    void submit_WhenQueueFull_ShouldReject() {
+        // Given：一个任务占用线程，之后三个任务占满队列
+        waitForRunning(jobService.submit("blocker", AlgorithmJob.Priority.NORMAL, this::awaitRelease));
+        for (int i = 0; i < 3; i++) {
+            jobService.submit("queued", AlgorithmJob.Priority.NORMAL, () -> null);
+        }
+
+        // When / Then
+        assertThrows(RejectedExecutionException.class,
+                () -> jobService.submit("overflow", AlgorithmJob.Priority.NORMAL, () -> null));
+    }
+
+    @Test
+    void cancel_WhenQueued_ShouldFreeQueueSlotAndNeverRun() {
+        // Given
+        waitForRunning(jobService.submit("blocker", AlgorithmJob.Priority.NORMAL, this::awaitRelease));
+        AlgorithmJob queued = jobService.submit("queued", AlgorithmJob.Priority.NORMAL, () -> {
+            fail("cancelled job must not run");
+            return null;
+        });
+
+        // When
+        boolean cancelled = jobService.cancel(queued.getId());
+
+        // Then
+        assertTrue(cancelled);
+        assertEquals(AlgorithmJob.Status.CANCELLED, queued.getStatus());
+        assertEquals(0, jobService.stats().getQueued());
+        assertFalse(jobService.cancel(queued.getId()));
+    }
+
+    @Test
+    void cancel_WhenRunning_ShouldRejectAndLetJobFinish() throws Exception {
+        // Given
+        AlgorithmJob running = jobService.submit("blocker", AlgorithmJob.Priority.NORMAL, this::awaitRelease);
+        waitForRunning(running);
+
+        // When
+        assertThrows(IllegalStateException.class, () -> jobService.cancel(running.getId()));
+        release.countDown();
+        running.getCompletion().get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(AlgorithmJob.Status.SUCCEEDED, running.getStatus());
+    }
+
+    @Test
+    void finishedJobs_ShouldBeRetainedByResultSize() throws Exception {
+        // Given：上限 64KB，一个 256KB 的结果超出上限
+        AlgorithmProperties properties = new AlgorithmProperties();
+        properties.getJobs().setThreads(1);
+        properties.getJobs().setMaxRetainedSize(DataSize.ofKilobytes(64));
+        AlgorithmJobService smallService = new AlgorithmJobService(properties);
+        try {
+            AlgorithmJob small = smallService.submit("small", AlgorithmJob.Priority.NORMAL, () -> new int[16]);
+            AlgorithmJob large = smallService.submit("large", AlgorithmJob.Priority.NORMAL, () -> new int[64 * 1024]);
+
+            // When
+            small.getCompletion().get(5, TimeUnit.SECONDS);
+            large.getCompletion().get(5, TimeUnit.SECONDS);
+
+            // Then
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (smallService.getJob(large.getId()).isPresent() && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            assertTrue(smallService.getJob(large.getId()).isEmpty());
+            assertTrue(smallService.getJob(small.getId()).isPresent());
+        } finally {
+            smallService.shutdown();
+        }
+    }
+
+    @Test
+    void resultBytes_ShouldEstimateArraysNumbersAndSizedResults() {
+        assertEquals(16 + 4 * 1000, AlgorithmJobService.resultBytes(new int[1000]));
+        assertEquals(56 + 128, AlgorithmJobService.resultBytes(BigInteger.ONE.shiftLeft(1024)));
+        assertEquals(12345, AlgorithmJobService.resultBytes((AlgorithmJob.SizedResult) () -> 12345));
+    }
+
+    @Test
+    void clampWait_ShouldNotExceedMaxWait() {
+        assertEquals(Duration.ofSeconds(5), jobService.clampWait(Duration.ofMinutes(1)));
+        assertEquals(Duration.ZERO, jobService.clampWait(Duration.ofMillis(-1)));
+    }
+
+    private Object awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private void waitForRunning(AlgorithmJob job) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (job.getStatus() != AlgorithmJob.Status.RUNNING && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private void waitForQueueToDrain() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (jobService.stats().getQueued() > 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlgorithmMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AlgorithmMetrics algorithmMetrics = new AlgorithmMetrics(meterRegistry);
+
+    @Test
+    void time_ShouldRecordTimerTaggedByAlgorithmAndSizeBucket() {
+        // When
+        int result = algorithmMetrics.time("fibonacci", 1500, () -> 42);
+
+        // Then
+        assertEquals(42, result);
+        Timer timer = meterRegistry.find(AlgorithmMetrics.METRIC_NAME)
+                .tag("algorithm", "fibonacci")
+                .tag("strategy", AlgorithmMetrics.NO_STRATEGY)
+                .tag("size", "1e3")
+                .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void time_WhenComputationThrows_ShouldStillRecord() {
+        // When
+        assertThrows(IllegalStateException.class, () -> algorithmMetrics.time("factorial", 5, () -> {
+            throw new IllegalStateException();
+        }));
+
+        // Then
+        assertEquals(1, meterRegistry.get(AlgorithmMetrics.METRIC_NAME).tag("size", "1e0").timer().count());
+    }
+
+    @Test
+    void sizeBucket_ShouldUsePowersOfTen() {
+        assertEquals("0", AlgorithmMetrics.sizeBucket(0));
+        assertEquals("1e0", AlgorithmMetrics.sizeBucket(9));
+        assertEquals("1e1", AlgorithmMetrics.sizeBucket(10));
+        assertEquals("1e6", AlgorithmMetrics.sizeBucket(9_999_999));
+        assertEquals("1e7", AlgorithmMetrics.sizeBucket(10_000_000));
+    }
+}
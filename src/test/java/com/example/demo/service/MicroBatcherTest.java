@@ -0,0 +1,77 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MicroBatcherTest {
+
+    private final List<List<Long>> queries = new CopyOnWriteArrayList<>();
+
+    private final MicroBatcher<Long, String> batcher = new MicroBatcher<>(ids -> {
+        queries.add(ids);
+        return ids.stream()
+                .filter(id -> id % 2 == 0)
+                .collect(Collectors.toMap(Function.identity(), id -> "user-" + id));
+    });
+
+    @Test
+    void load_WhenConcurrentWithinWindow_ShouldMergeIntoOneQuery() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            // When
+            List<Future<String>> results = new ArrayList<>();
+            for (long id = 1; id <= 4; id++) {
+                long key = id;
+                results.add(executor.submit(() -> batcher.load(key, Duration.ofMillis(500), 100)));
+            }
+
+            // Then
+            assertNull(results.get(0).get(5, TimeUnit.SECONDS));
+            assertEquals("user-2", results.get(1).get(5, TimeUnit.SECONDS));
+            assertNull(results.get(2).get(5, TimeUnit.SECONDS));
+            assertEquals("user-4", results.get(3).get(5, TimeUnit.SECONDS));
+            assertEquals(1, queries.size());
+            assertEquals(4, queries.get(0).size());
+            assertEquals(1, batcher.batchCount());
+            assertEquals(4, batcher.batchedKeyCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void load_WhenBatchFull_ShouldExecuteWithoutWaitingForWindow() {
+        // When
+        long start = System.nanoTime();
+        String result = batcher.load(2L, Duration.ofSeconds(30), 1);
+
+        // Then
+        assertEquals("user-2", result);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(List.of(List.of(2L)), queries);
+    }
+
+    @Test
+    void load_WhenBatchLoaderThrows_ShouldFailEveryCaller() {
+        // Given
+        MicroBatcher<Long, String> failing = new MicroBatcher<>(ids -> {
+            throw new IllegalStateException("database unavailable");
+        });
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> failing.load(1L, Duration.ZERO, 10));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void load_WhenConcurrentSameKey_ShouldCallLoaderOnce() throws Exception {
+        // Given
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            // When
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> singleFlight.load(1L, key -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return "user-" + key;
+            })));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.load(1L, key -> {
+                    loads.incrementAndGet();
+                    return "unexpected";
+                })));
+            }
+            while (singleFlight.sharedCount() < callers - 1) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            // Then
+            for (Future<String> result : results) {
+                assertEquals("user-1", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(callers - 1, singleFlight.sharedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void load_AfterPreviousFlightCompleted_ShouldLoadAgain() {
+        // When
+        singleFlight.load(1L, key -> "first");
+        String second = singleFlight.load(1L, key -> "second");
+
+        // Then
+        assertEquals("second", second);
+        assertEquals(0, singleFlight.sharedCount());
+    }
+
+    @Test
+    void load_WhenLoaderThrows_ShouldPropagateOriginalException() {
+        // When
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> singleFlight.load(1L, key -> {
+                    throw new IllegalStateException("database unavailable");
+                }));
+
+        // Then
+        assertEquals("database unavailable", e.getMessage());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.demo.service;
+
+import com.example.demo.config.UserProperties;
+import com.example.demo.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheTest {
+
+    private UserCache userCache;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        userCache = new UserCache(new UserProperties());
+        testUser = new User(1L, "张三", "zhangsan@example.com", null, null);
+    }
+
+    @Test
+    void getById_WhenUserMissing_ShouldCacheNegativeResult() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        Function<Long, User> loader = id -> {
+            loads.incrementAndGet();
+            return null;
+        };
+
+        // When
+        Optional<User> first = userCache.getById(999L, loader);
+        Optional<User> second = userCache.getById(999L, loader);
+
+        // Then
+        assertFalse(first.isPresent());
+        assertFalse(second.isPresent());
+        assertEquals(1, loads.get());
+        assertEquals(1, userCache.stats().getById().getMissCount());
+        assertEquals(1, userCache.stats().getById().getHitCount());
+    }
+
+    @Test
+    void getById_WhileLoading_ShouldShareLoadWithoutBlockingOtherIds() throws Exception {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Optional<User>> first = executor.submit(() -> userCache.getById(1L, id -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return testUser;
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<Optional<User>> second = executor.submit(() -> userCache.getById(1L, id -> {
+                loads.incrementAndGet();
+                return testUser;
+            }));
+
+            // When
+            Optional<User> other = userCache.getById(2L, id -> null);
+            while (userCache.coalescedByIdCount() == 0) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            // Then
+            assertFalse(other.isPresent());
+            assertTrue(first.get(5, TimeUnit.SECONDS).isPresent());
+            assertTrue(second.get(5, TimeUnit.SECONDS).isPresent());
+            assertEquals(1, loads.get());
+            assertEquals(1, userCache.coalescedByIdCount());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void getByEmail_ShouldShareEntryWithIdIndex() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        userCache.getByEmail("zhangsan@example.com", email -> testUser);
+        Optional<User> byId = userCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return testUser;
+        });
+
+        // Then
+        assertTrue(byId.isPresent());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void getAllById_ShouldLoadOnlyMissingIds() {
+        // Given
+        userCache.getById(1L, id -> testUser);
+        AtomicInteger loads = new AtomicInteger();
+        Function<Set<Long>, Map<Long, User>> loader = ids -> {
+            loads.incrementAndGet();
+            assertEquals(Set.of(2L), ids);
+            return Map.of();
+        };
+
+        // When
+        Map<Long, Optional<User>> first = userCache.getAllById(List.of(1L, 2L), loader);
+        Map<Long, Optional<User>> second = userCache.getAllById(List.of(1L, 2L), loader);
+
+        // Then
+        assertTrue(first.get(1L).isPresent());
+        assertFalse(first.get(2L).isPresent());
+        assertEquals(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getAllByEmail_ShouldFillBothIndexes() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        userCache.getAllByEmail(List.of("zhangsan@example.com"), emails -> Map.of("zhangsan@example.com", testUser));
+        Optional<User> byId = userCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return testUser;
+        });
+        Map<String, Optional<User>> byEmail = userCache.getAllByEmail(List.of("zhangsan@example.com"), emails -> {
+            loads.incrementAndGet();
+            return Map.of();
+        });
+
+        // Then
+        assertTrue(byId.isPresent());
+        assertTrue(byEmail.get("zhangsan@example.com").isPresent());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void invalidate_ShouldForceReload() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        Function<String, User> loader = email -> {
+            loads.incrementAndGet();
+            return testUser;
+        };
+        userCache.getByEmail("zhangsan@example.com", loader);
+
+        // When
+        userCache.invalidate(testUser);
+        userCache.getByEmail("zhangsan@example.com", loader);
+
+        // Then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getByEmail_WhenUpdatedDuringLoad_ShouldNotCacheStaleUser() {
+        // Given
+        User renamed = new User(1L, "张三丰", "zhangsan@example.com", null, null);
+        AtomicInteger idLoads = new AtomicInteger();
+
+        // When
+        Optional<User> stale = userCache.getByEmail("zhangsan@example.com", email -> {
+            userCache.invalidate(renamed);
+            return testUser;
+        });
+        Optional<User> byEmail = userCache.getByEmail("zhangsan@example.com", email -> renamed);
+        userCache.invalidate(1L);
+        Optional<User> byId = userCache.getById(1L, id -> {
+            idLoads.incrementAndGet();
+            return renamed;
+        });
+
+        // Then
+        assertEquals("张三", stale.get().getName());
+        assertEquals("张三丰", byEmail.get().getName());
+        assertEquals("张三丰", byId.get().getName());
+        assertEquals(1, idLoads.get());
+    }
+
+    @Test
+    void getAllByEmail_WhenDeletedDuringLoad_ShouldNotCacheStaleUser() {
+        // Given
+        AtomicInteger idLoads = new AtomicInteger();
+
+        // When
+        userCache.getAllByEmail(List.of("zhangsan@example.com"), emails -> {
+            userCache.invalidate(testUser);
+            return Map.of("zhangsan@example.com", testUser);
+        });
+        Optional<User> byId = userCache.getById(1L, id -> {
+            idLoads.incrementAndGet();
+            return null;
+        });
+        Map<String, Optional<User>> byEmail = userCache.getAllByEmail(List.of("zhangsan@example.com"), emails -> Map.of());
+
+        // Then
+        assertFalse(byId.isPresent());
+        assertFalse(byEmail.get("zhangsan@example.com").isPresent());
+        assertEquals(1, idLoads.get());
+    }
+
+    @Test
+    void getById_WhenUpdatedDuringLoad_ShouldNotCacheStaleUser() {
+        // Given
+        User renamed = new User(1L, "张三丰", "zhangsan@example.com", null, null);
+
+        // When
+        Optional<User> stale = userCache.getById(1L, id -> {
+            userCache.invalidate(renamed);
+            return testUser;
+        });
+        Optional<User> reloaded = userCache.getById(1L, id -> renamed);
+
+        // Then
+        assertEquals("张三", stale.get().getName());
+        assertEquals("张三丰", reloaded.get().getName());
+    }
+
+    @Test
+    void getAllById_WhenUpdatedDuringLoad_ShouldNotCacheStaleUser() {
+        // Given
+        User renamed = new User(1L, "张三丰", "zhangsan@example.com", null, null);
+
+        // When
+        userCache.getAllById(List.of(1L, 2L), ids -> {
+            userCache.invalidate(renamed);
+            return Map.of(1L, testUser);
+        });
+        Map<Long, Optional<User>> reloaded = userCache.getAllById(List.of(1L, 2L), ids -> {
+            assertEquals(Set.of(1L), ids);
+            return Map.of(1L, renamed);
+        });
+
+        // Then
+        assertEquals("张三丰", reloaded.get(1L).get().getName());
+        assertFalse(reloaded.get(2L).isPresent());
+    }
+
+    @Test
+    void getById_WhenDisabled_ShouldAlwaysLoad() {
+        // Given
+        UserProperties properties = new UserProperties();
+        properties.getCache().setEnabled(false);
+        UserCache disabledCache = new UserCache(properties);
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        disabledCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return testUser;
+        });
+        disabledCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return testUser;
+        });
+
+        // Then
+        assertEquals(2, loads.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
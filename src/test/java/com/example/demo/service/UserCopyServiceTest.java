@@ -0,0 +1,146 @@
+package com.example.demo.service;
+
+import com.example.demo.mapper.UserCopyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserCopyServiceTest {
+
+    @Mock
+    private UserCopyRepository userCopyRepository;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private UserNameIndexLoader userNameIndexLoader;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @InjectMocks
+    private UserCopyService userCopyService;
+
+    private ByteArrayOutputStream copied;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        copied = new ByteArrayOutputStream();
+        lenient().when(userCopyRepository.copyIn(any())).thenAnswer(invocation -> {
+            UserCopyRepository.CopyWriter writer = invocation.getArgument(0);
+            writer.write(copied);
+            return copied.toString(StandardCharsets.UTF_8).lines().count();
+        });
+    }
+
+    @Test
+    void importCsv_ShouldCopyValidRowsAndReportInvalidOnes() throws Exception {
+        // Given
+        String csv = "name,email,created_at\n"
+                + "张三,zhangsan@example.com,2024-01-01 10:00:00\n"
+                + ",nobody@example.com,\n"
+                + "\"李, \"\"四\"\"\",lisi@example.com,\n"
+                + "王五,not-an-email,\n";
+
+        // When
+        UserCopyService.ImportResult result = userCopyService.importCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        // Then
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertEquals(3, result.getErrors().get(0).getLine());
+        assertEquals("Name is required", result.getErrors().get(0).getMessage());
+        assertEquals("Invalid email: not-an-email", result.getErrors().get(1).getMessage());
+        List<String> rows = copied.toString(StandardCharsets.UTF_8).lines().collect(java.util.stream.Collectors.toList());
+        assertEquals("\"张三\",\"zhangsan@example.com\",2024-01-01T10:00,2024-01-01T10:00", rows.get(0));
+        assertTrue(rows.get(1).startsWith("\"李, \"\"四\"\"\",\"lisi@example.com\","));
+        verify(userCache, times(1)).invalidateAll();
+        verify(userNameIndexLoader, times(1)).rebuildAsync();
+    }
+
+    @Test
+    void importCsv_WhenHeaderMissingEmail_ShouldThrowException() {
+        // Given
+        String csv = "name\n张三\n";
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> userCopyService.importCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))));
+        assertEquals("CSV header must contain name and email", exception.getMessage());
+    }
+
+    @Test
+    void importNdjson_ShouldCopyEachRecord() throws Exception {
+        // Given
+        String ndjson = "{\"name\":\"张三\",\"email\":\"zhangsan@example.com\"}\n"
+                + "{\"name\":\"李四\",\"email\":\"\"}\n";
+
+        // When
+        UserCopyService.ImportResult result = userCopyService.importNdjson(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        // Then
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals(2, result.getErrors().get(0).getLine());
+    }
+
+    @Test
+    void importNdjson_WhenLinesAreMalformed_ShouldRejectThemAndCopyTheRest() throws Exception {
+        // Given
+        String ndjson = "{\"name\":\"张三\",\"email\":\"zhangsan@example.com\"}\n"
+                + "{\"name\":\"李四\",\"email\":\n"
+                + "\n"
+                + "not json\n"
+                + "{\"name\":\"王五\",\"email\":\"wangwu@example.com\"}\n";
+
+        // When
+        UserCopyService.ImportResult result = userCopyService.importNdjson(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        // Then
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertEquals(2, result.getErrors().get(0).getLine());
+        assertTrue(result.getErrors().get(0).getMessage().startsWith("Invalid JSON: "));
+        assertEquals(4, result.getErrors().get(1).getLine());
+        List<String> rows = copied.toString(StandardCharsets.UTF_8).lines().collect(java.util.stream.Collectors.toList());
+        assertTrue(rows.get(0).startsWith("\"张三\",\"zhangsan@example.com\","));
+        assertTrue(rows.get(1).startsWith("\"王五\",\"wangwu@example.com\","));
+    }
+
+    @Test
+    void importCsv_WhenCopyFails_ShouldThrowException() throws Exception {
+        // Given
+        doThrow(new SQLException("duplicate key value")).when(userCopyRepository).copyIn(any());
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> userCopyService.importCsv(
+                new ByteArrayInputStream("name,email\n张三,zhangsan@example.com\n".getBytes(StandardCharsets.UTF_8))));
+        assertEquals("Import failed: duplicate key value", exception.getMessage());
+        verify(userCache, never()).invalidateAll();
+    }
+
+    @Test
+    void parseCsvLine_ShouldHandleQuotedFields() {
+        assertEquals(List.of("a", "b,c", "d\"e", ""), UserCopyService.parseCsvLine("a,\"b,c\",\"d\"\"e\","));
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.demo.service;
+
+import com.example.demo.config.UserProperties;
+import com.example.demo.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserNameIndexTest {
+
+    private UserNameIndex userNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        UserProperties properties = new UserProperties();
+        properties.getNameIndex().setEnabled(true);
+        properties.getNameIndex().setMaxResults(2);
+        userNameIndex = new UserNameIndex(properties);
+
+        UserNameIndex.Builder builder = userNameIndex.beginRebuild();
+        builder.add(new User(3L, "张三丰", "a@example.com", null, null));
+        builder.add(new User(2L, "张三", "b@example.com", null, null));
+        builder.add(new User(1L, "李三", "c@example.com", null, null));
+        userNameIndex.finishRebuild(builder);
+    }
+
+    @Test
+    void search_ShouldReturnTopKByIdDesc() {
+        // When
+        List<User> result = userNameIndex.search("三");
+
+        // Then
+        assertTrue(userNameIndex.isReady());
+        assertEquals(List.of(3L, 2L), ids(result));
+    }
+
+    @Test
+    void search_WithLimit_ShouldNotExceedMaxResults() {
+        assertEquals(List.of(3L), ids(userNameIndex.search("三", 1)));
+        assertEquals(List.of(3L, 2L), ids(userNameIndex.search("三", 10)));
+    }
+
+    @Test
+    void search_ShouldMatchInfix() {
+        assertEquals(List.of(3L), ids(userNameIndex.search("三丰")));
+        assertEquals(List.of(), ids(userNameIndex.search("丰三")));
+    }
+
+    @Test
+    void put_ShouldReplaceExistingUser() {
+        // When
+        userNameIndex.put(new User(3L, "王五", "a@example.com", null, null));
+
+        // Then
+        assertEquals(List.of(2L), ids(userNameIndex.search("张三")));
+        assertEquals(List.of(3L), ids(userNameIndex.search("王五")));
+        assertEquals(3, userNameIndex.stats().getUsers());
+        assertEquals(1, userNameIndex.stats().getDeadSlots());
+    }
+
+    @Test
+    void remove_ShouldHideUser() {
+        // When
+        userNameIndex.remove(2L);
+
+        // Then
+        assertEquals(List.of(3L, 1L), ids(userNameIndex.search("三")));
+    }
+
+    @Test
+    void rebuild_ShouldReplayConcurrentWrites() {
+        // Given
+        UserNameIndex.Builder builder = userNameIndex.beginRebuild();
+        builder.add(new User(2L, "张三", "b@example.com", null, null));
+
+        // When
+        userNameIndex.put(new User(4L, "赵三", "d@example.com", null, null));
+        userNameIndex.remove(2L);
+        userNameIndex.finishRebuild(builder);
+
+        // Then
+        assertEquals(List.of(4L), ids(userNameIndex.search("三")));
+    }
+
+    @Test
+    void stats_ShouldReportFootprintPerUser() {
+        // When
+        UserNameIndex.IndexStats stats = userNameIndex.stats();
+
+        // Then
+        assertEquals(3, stats.getUsers());
+        assertTrue(stats.getEstimatedBytes() > 0);
+        assertEquals(stats.getEstimatedBytes() / 3, stats.getBytesPerUser());
+    }
+
+    private static List<Long> ids(List<User> users) {
+        return users.stream().map(User::getId).collect(Collectors.toList());
+    }
+}
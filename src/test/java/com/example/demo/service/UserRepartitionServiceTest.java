@@ -0,0 +1,111 @@
+package com.example.demo.service;
+
+import com.example.demo.config.UserProperties;
+import com.example.demo.mapper.UserPartitionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserRepartitionServiceTest {
+
+    @Mock
+    private UserPartitionRepository userPartitionRepository;
+
+    private UserRepartitionService userRepartitionService;
+
+    @BeforeEach
+    void setUp() {
+        UserProperties userProperties = new UserProperties();
+        userProperties.getRepartition().setBatchSize(2);
+        userProperties.getRepartition().setLockTimeout(Duration.ofMillis(100));
+        userProperties.getRepartition().setSwapAttempts(2);
+        userRepartitionService = new UserRepartitionService(userPartitionRepository, userProperties);
+    }
+
+    @Test
+    void run_ShouldCopyInBatchesThenCatchUpAndSwap() throws Exception {
+        // Given
+        when(userPartitionRepository.estimateRows()).thenReturn(3L);
+        when(userPartitionRepository.copyBatch(0, 2)).thenReturn(new UserPartitionRepository.CopiedBatch(5, 2));
+        when(userPartitionRepository.copyBatch(5, 2)).thenReturn(new UserPartitionRepository.CopiedBatch(9, 1));
+        when(userPartitionRepository.copyBatch(9, 2)).thenReturn(new UserPartitionRepository.CopiedBatch(0, 0));
+        when(userPartitionRepository.replayChanges(2)).thenReturn(2, 1);
+        when(userPartitionRepository.swap(2, Duration.ofMillis(100))).thenReturn(1L);
+
+        // When
+        userRepartitionService.run(32);
+
+        // Then
+        InOrder inOrder = inOrder(userPartitionRepository);
+        inOrder.verify(userPartitionRepository).prepare(32);
+        inOrder.verify(userPartitionRepository, times(3)).copyBatch(anyLong(), anyInt());
+        inOrder.verify(userPartitionRepository).createIndexes();
+        inOrder.verify(userPartitionRepository, times(2)).replayChanges(2);
+        inOrder.verify(userPartitionRepository).swap(2, Duration.ofMillis(100));
+        verify(userPartitionRepository, never()).abort();
+        UserRepartitionService.RepartitionStatus status = userRepartitionService.status();
+        assertEquals(UserRepartitionService.State.COMPLETED, status.getState());
+        assertEquals(3, status.getEstimatedRows());
+        assertEquals(3, status.getCopiedRows());
+        assertEquals(4, status.getReplayedChanges());
+        assertNull(status.getPhase());
+        assertNotNull(status.getFinishedAt());
+    }
+
+    @Test
+    void run_WhenLockTimesOut_ShouldCatchUpAndRetrySwap() throws Exception {
+        // Given
+        when(userPartitionRepository.copyBatch(0, 2)).thenReturn(new UserPartitionRepository.CopiedBatch(0, 0));
+        when(userPartitionRepository.swap(anyInt(), any()))
+                .thenThrow(new SQLException("canceling statement due to lock timeout", "55P03"))
+                .thenReturn(0L);
+
+        // When
+        userRepartitionService.run(8);
+
+        // Then
+        verify(userPartitionRepository, times(2)).swap(anyInt(), any());
+        verify(userPartitionRepository, times(2)).replayChanges(2);
+        assertEquals(UserRepartitionService.State.COMPLETED, userRepartitionService.status().getState());
+    }
+
+    @Test
+    void run_WhenSwapKeepsTimingOut_ShouldAbortAndReportFailure() throws Exception {
+        // Given
+        when(userPartitionRepository.copyBatch(0, 2)).thenReturn(new UserPartitionRepository.CopiedBatch(0, 0));
+        when(userPartitionRepository.swap(anyInt(), any()))
+                .thenThrow(new SQLException("canceling statement due to lock timeout", "55P03"));
+
+        // When
+        userRepartitionService.run(8);
+
+        // Then
+        verify(userPartitionRepository, times(2)).swap(anyInt(), any());
+        verify(userPartitionRepository).abort();
+        UserRepartitionService.RepartitionStatus status = userRepartitionService.status();
+        assertEquals(UserRepartitionService.State.FAILED, status.getState());
+        assertEquals("canceling statement due to lock timeout", status.getError());
+    }
+
+    @Test
+    void start_WhenPartitionsOutOfRange_ShouldThrowException() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> userRepartitionService.start(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> userRepartitionService.start(UserRepartitionService.MAX_PARTITIONS + 1));
+        assertEquals(UserRepartitionService.State.IDLE, userRepartitionService.status().getState());
+    }
+}
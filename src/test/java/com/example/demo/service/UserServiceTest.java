@@ -1,22 +1,31 @@
 package com.example.demo.service;
 
+import com.example.demo.config.UserProperties;
 import com.example.demo.entity.User;
+import com.example.demo.entity.UserSearchHit;
 import com.example.demo.mapper.UserMapper;
+import org.apache.ibatis.cursor.Cursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -26,6 +35,15 @@ class UserServiceTest {
     @Mock
     private UserMapper userMapper;
 
+    @Spy
+    private UserProperties userProperties = new UserProperties();
+
+    @Spy
+    private UserCache userCache = new UserCache(new UserProperties());
+
+    @Mock
+    private UserNameIndex userNameIndex;
+
     @InjectMocks
     private UserService userService;
 
@@ -57,6 +75,36 @@ class UserServiceTest {
         verify(userMapper, times(1)).findAll();
     }
 
+    @Test
+    void getUsersPage_ShouldClampLimit() {
+        // Given
+        when(userMapper.findPage(10L, UserService.MAX_PAGE_SIZE)).thenReturn(Arrays.asList(testUser));
+
+        // When
+        List<User> result = userService.getUsersPage(10L, Integer.MAX_VALUE);
+
+        // Then
+        assertEquals(1, result.size());
+        verify(userMapper, times(1)).findPage(10L, UserService.MAX_PAGE_SIZE);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamAllUsers_ShouldConsumeCursorAndClose() throws Exception {
+        // Given
+        Cursor<User> cursor = mock(Cursor.class);
+        when(cursor.iterator()).thenReturn(Arrays.asList(testUser, testUser).iterator());
+        when(userMapper.streamAll()).thenReturn(cursor);
+
+        // When
+        List<User> consumed = new ArrayList<>();
+        userService.streamAllUsers(consumed::add);
+
+        // Then
+        assertEquals(2, consumed.size());
+        verify(cursor, times(1)).close();
+    }
+
     @Test
     void getUserById_WhenUserExists_ShouldReturnUser() {
         // Given
@@ -84,6 +132,179 @@ class UserServiceTest {
         verify(userMapper, times(1)).findById(999L);
     }
 
+    @Test
+    void getUserById_WhenCalledTwice_ShouldHitCache() {
+        // Given
+        when(userMapper.findById(1L)).thenReturn(testUser);
+
+        // When
+        userService.getUserById(1L);
+        Optional<User> result = userService.getUserById(1L);
+
+        // Then
+        assertTrue(result.isPresent());
+        verify(userMapper, times(1)).findById(1L);
+        assertEquals(1, userService.getCacheStats().getById().getHitCount());
+    }
+
+    @Test
+    void getUserById_WhenMicroBatchEnabled_ShouldQueryByIdArray() {
+        // Given
+        userProperties.getLookup().setMicroBatch(true);
+        userProperties.getLookup().setBatchWindow(Duration.ZERO);
+        when(userMapper.findByIds(new Long[]{1L})).thenReturn(List.of(testUser));
+
+        // When
+        Optional<User> result = userService.getUserById(1L);
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals("张三", result.get().getName());
+        verify(userMapper, never()).findById(any());
+        assertEquals(1, userService.getLookupStats().getBatches());
+        assertEquals(1, userService.getLookupStats().getBatchedIds());
+    }
+
+    @Test
+    void getUsersByIds_ShouldKeepRequestOrderAndLoadOnlyMisses() {
+        // Given
+        User otherUser = new User(2L, "李四", "lisi@example.com", null, null);
+        when(userMapper.findById(1L)).thenReturn(testUser);
+        when(userMapper.findByIds(any(Long[].class))).thenReturn(List.of(otherUser));
+        userService.getUserById(1L);
+
+        // When
+        List<UserService.MultiGetItem<Long>> result = userService.getUsersByIds(Arrays.asList(2L, 999L, 1L, 2L));
+
+        // Then
+        assertEquals(4, result.size());
+        assertEquals("李四", result.get(0).getUser().getName());
+        assertFalse(result.get(1).isFound());
+        assertNull(result.get(1).getUser());
+        assertEquals("张三", result.get(2).getUser().getName());
+        assertEquals(2L, result.get(3).getKey());
+        verify(userMapper, times(1)).findByIds(argThat(ids -> ids.length == 2
+                && Arrays.asList(ids).containsAll(List.of(2L, 999L))));
+    }
+
+    @Test
+    void getUsersByEmails_ShouldCacheMissingEmails() {
+        // Given
+        when(userMapper.findByEmails(any(String[].class))).thenReturn(List.of(testUser));
+
+        // When
+        userService.getUsersByEmails(List.of("zhangsan@example.com", "nobody@example.com"));
+        List<UserService.MultiGetItem<String>> result =
+                userService.getUsersByEmails(List.of("nobody@example.com", "zhangsan@example.com"));
+
+        // Then
+        assertFalse(result.get(0).isFound());
+        assertTrue(result.get(1).isFound());
+        verify(userMapper, times(1)).findByEmails(any(String[].class));
+    }
+
+    @Test
+    void getUsersByIds_WhenTooManyIds_ShouldThrowException() {
+        // Given
+        List<Long> ids = new ArrayList<>();
+        for (long id = 0; id <= UserService.MAX_PAGE_SIZE; id++) {
+            ids.add(id);
+        }
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> userService.getUsersByIds(ids));
+        verify(userMapper, never()).findByIds(any());
+    }
+
+    @Test
+    void getUserByEmail_AfterUpdate_ShouldReloadFromMapper() {
+        // Given
+        User updatedUser = new User(1L, "张三", "zhangsan.updated@example.com", null, null);
+        User updateData = new User(null, "张三", "zhangsan.updated@example.com", null, null);
+        when(userMapper.findByEmail("zhangsan@example.com")).thenReturn(testUser, (User) null);
+        when(userMapper.updateReturning(any(User.class))).thenReturn(updatedUser);
+
+        // When
+        userService.getUserByEmail("zhangsan@example.com");
+        userService.updateUser(1L, updateData);
+        Optional<User> result = userService.getUserByEmail("zhangsan@example.com");
+
+        // Then
+        assertFalse(result.isPresent());
+        verify(userMapper, times(2)).findByEmail("zhangsan@example.com");
+    }
+
+    @Test
+    void getUsersByNameContaining_WhenIndexReady_ShouldNotQueryMapper() {
+        // Given
+        when(userNameIndex.isReady()).thenReturn(true);
+        when(userNameIndex.search("张")).thenReturn(List.of(testUser));
+
+        // When
+        List<User> result = userService.getUsersByNameContaining("张", null);
+
+        // Then
+        assertEquals(1, result.size());
+        verify(userMapper, never()).findByNameContaining(anyString(), any());
+    }
+
+    @Test
+    void getUsersByNameContaining_WhenIndexNotReady_ShouldNotLimitDatabaseResultsByDefault() {
+        // Given
+        userProperties.getNameIndex().setMaxResults(1);
+        when(userNameIndex.isReady()).thenReturn(false);
+        when(userMapper.findByNameContaining("张", null)).thenReturn(List.of(testUser, testUser));
+
+        // When
+        List<User> result = userService.getUsersByNameContaining("张", null);
+
+        // Then
+        assertEquals(2, result.size());
+        verify(userNameIndex, never()).search(anyString());
+    }
+
+    @Test
+    void getUsersByNameContaining_WithLimit_ShouldApplyItOnBothPaths() {
+        // Given
+        when(userNameIndex.isReady()).thenReturn(false, true);
+        when(userMapper.findByNameContaining("张", 5)).thenReturn(List.of(testUser));
+        when(userNameIndex.search("张", 5)).thenReturn(List.of(testUser));
+
+        // When
+        List<User> fromDatabase = userService.getUsersByNameContaining("张", 5);
+        List<User> fromIndex = userService.getUsersByNameContaining("张", 5);
+
+        // Then
+        assertEquals(1, fromDatabase.size());
+        assertEquals(1, fromIndex.size());
+        verify(userMapper).findByNameContaining("张", 5);
+        verify(userNameIndex).search("张", 5);
+    }
+
+    @Test
+    void searchUsersByName_ShouldEscapeLikePattern() {
+        // Given
+        List<UserSearchHit> hits = List.of(new UserSearchHit(testUser, 1.0));
+        when(userMapper.searchByName("50%_off", "%50\\%\\_off%", null, null, 20)).thenReturn(hits);
+
+        // When
+        List<UserSearchHit> result = userService.searchUsersByName(" 50%_off ", null, null, 20);
+
+        // Then
+        assertEquals(1, result.size());
+    }
+
+    @Test
+    void searchUsersByName_WhenQueryTooShort_ShouldThrowException() {
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            userService.searchUsersByName("张三", null, null, 20);
+        });
+
+        assertEquals("Query must be at least 3 characters", exception.getMessage());
+        verifyNoInteractions(userMapper);
+    }
+
     @Test
     void createUser_WhenEmailNotExists_ShouldCreateUser() {
         // Given
@@ -91,8 +312,7 @@ class UserServiceTest {
         newUser.setName("李四");
         newUser.setEmail("lisi@example.com");
 
-        when(userMapper.countByEmail(anyString())).thenReturn(0);
-        when(userMapper.insert(any(User.class))).thenReturn(1);
+        when(userMapper.insertIfAbsent(any(User.class))).thenReturn(2L);
 
         // When
         User result = userService.createUser(newUser);
@@ -103,8 +323,49 @@ class UserServiceTest {
         assertEquals("lisi@example.com", result.getEmail());
         assertNotNull(result.getCreatedAt());
         assertNotNull(result.getUpdatedAt());
-        verify(userMapper, times(1)).countByEmail("lisi@example.com");
-        verify(userMapper, times(1)).insert(any(User.class));
+        assertEquals(2L, result.getId());
+        verify(userMapper, times(1)).insertIfAbsent(any(User.class));
+    }
+
+    @Test
+    void createUser_WhenNewIdWasLookedUpBefore_ShouldNotServeCachedNotFound() {
+        // Given
+        when(userMapper.findById(2L)).thenReturn(null);
+        assertTrue(userService.getUserById(2L).isEmpty());
+        when(userMapper.insertIfAbsent(any(User.class))).thenReturn(2L);
+        User created = userService.createUser(new User(null, "李四", "lisi@example.com", null, null));
+        when(userMapper.findById(2L)).thenReturn(created);
+
+        // When
+        Optional<User> result = userService.getUserById(2L);
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals("lisi@example.com", result.get().getEmail());
+        verify(userMapper, times(2)).findById(2L);
+    }
+
+    @Test
+    void createUsers_WhenNewIdWasLookedUpBefore_ShouldNotServeCachedNotFound() {
+        // Given
+        when(userMapper.findById(10L)).thenReturn(null);
+        assertTrue(userService.getUserById(10L).isEmpty());
+        User newUser = new User(null, "李四", "lisi@example.com", null, null);
+        when(userMapper.findExistingEmails(any(String[].class))).thenReturn(List.of());
+        when(userMapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<User> inserted = invocation.getArgument(0);
+            inserted.get(0).setId(10L);
+            return 1;
+        });
+        userService.createUsers(List.of(newUser));
+        when(userMapper.findById(10L)).thenReturn(newUser);
+
+        // When
+        Optional<User> result = userService.getUserById(10L);
+
+        // Then
+        assertTrue(result.isPresent());
+        verify(userMapper, times(2)).findById(10L);
     }
 
     @Test
@@ -114,7 +375,7 @@ class UserServiceTest {
         newUser.setName("李四");
         newUser.setEmail("existing@example.com");
 
-        when(userMapper.countByEmail("existing@example.com")).thenReturn(1);
+        when(userMapper.insertIfAbsent(any(User.class))).thenReturn(null);
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -122,25 +383,169 @@ class UserServiceTest {
         });
 
         assertEquals("Email already exists: existing@example.com", exception.getMessage());
-        verify(userMapper, times(1)).countByEmail("existing@example.com");
-        verify(userMapper, never()).insert(any(User.class));
+        verify(userMapper, times(1)).insertIfAbsent(any(User.class));
     }
 
     @Test
-    void updateUser_WhenUserExists_ShouldUpdateUser() {
+    void createUser_WhenConcurrentInsertWins_ShouldThrowException() {
+        // Given
+        User newUser = new User(null, "李四", "existing@example.com", null, null);
+        when(userMapper.insertIfAbsent(any(User.class)))
+                .thenThrow(new DuplicateKeyException("duplicate key value violates unique constraint"));
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> userService.createUser(newUser));
+        assertEquals("Email already exists: existing@example.com", exception.getMessage());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createUsers_ShouldReportPerRowResults() {
+        // Given
+        userProperties.getBatch().setChunkSize(2);
+        User first = new User(null, "李四", "lisi@example.com", null, null);
+        User duplicate = new User(null, "李四", "lisi@example.com", null, null);
+        User existing = new User(null, "王五", "existing@example.com", null, null);
+        User invalid = new User(null, "", "empty@example.com", null, null);
+        User last = new User(null, "赵六", "zhaoliu@example.com", null, null);
+        when(userMapper.findExistingEmails(any(String[].class))).thenAnswer(invocation -> {
+            String[] emails = invocation.getArgument(0);
+            return Arrays.asList(emails).contains("existing@example.com")
+                    ? List.of("existing@example.com")
+                    : List.of();
+        });
+        when(userMapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            long id = 10;
+            for (User user : users) {
+                user.setId(id++);
+            }
+            return users.size();
+        });
+
+        // When
+        List<UserService.BatchItemResult> results =
+                userService.createUsers(Arrays.asList(first, duplicate, existing, invalid, last));
+
+        // Then
+        assertEquals(5, results.size());
+        assertEquals(10L, results.get(0).getId());
+        assertEquals("Duplicate email in batch: lisi@example.com", results.get(1).getError());
+        assertEquals("Email already exists: existing@example.com", results.get(2).getError());
+        assertEquals("Name and email are required", results.get(3).getError());
+        assertEquals(4, results.get(4).getIndex());
+        assertEquals(10L, results.get(4).getId());
+        verify(userMapper, times(2)).insertBatch(anyList());
+    }
+
+    @Test
+    void createUsers_WhenBatchInsertFails_ShouldFallBackToSingleInserts() {
         // Given
-        User existingUser = new User();
-        existingUser.setId(1L);
-        existingUser.setName("张三");
-        existingUser.setEmail("zhangsan@example.com");
+        User first = new User(null, "李四", "lisi@example.com", null, null);
+        User second = new User(null, "王五", "wangwu@example.com", null, null);
+        when(userMapper.findExistingEmails(any(String[].class))).thenReturn(List.of());
+        when(userMapper.insertBatch(anyList())).thenThrow(new DuplicateKeyException("duplicate"));
+        when(userMapper.insertIfAbsent(first)).thenReturn(1L);
+        when(userMapper.insertIfAbsent(second)).thenReturn(null);
+
+        // When
+        List<UserService.BatchItemResult> results = userService.createUsers(Arrays.asList(first, second));
+
+        // Then
+        assertNull(results.get(0).getError());
+        assertEquals(1L, results.get(0).getId());
+        assertEquals("Email already exists: wangwu@example.com", results.get(1).getError());
+    }
+
+    @Test
+    void createUsers_WhenRowCannotBeParsed_ShouldReportItAndContinue() {
+        // Given
+        User first = new User(null, "李四", "lisi@example.com", null, null);
+        User last = new User(null, "王五", "wangwu@example.com", null, null);
+        Iterator<User> users = new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < 3;
+            }
+
+            @Override
+            public User next() {
+                switch (next++) {
+                    case 0:
+                        return first;
+                    case 1:
+                        throw new UserService.InvalidBatchItemException("Invalid JSON: unexpected character");
+                    default:
+                        return last;
+                }
+            }
+        };
+        when(userMapper.findExistingEmails(any(String[].class))).thenReturn(List.of());
+        when(userMapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<User> inserted = invocation.getArgument(0);
+            long id = 10;
+            for (User user : inserted) {
+                user.setId(id++);
+            }
+            return inserted.size();
+        });
+
+        // When
+        List<UserService.BatchItemResult> results = userService.createUsers(users);
+
+        // Then
+        assertEquals(3, results.size());
+        assertEquals(10L, results.get(0).getId());
+        assertEquals("Invalid JSON: unexpected character", results.get(1).getError());
+        assertEquals(11L, results.get(2).getId());
+    }
+
+    @Test
+    void createUsers_WhenDatabaseFailsInLaterChunk_ShouldKeepResultsOfCommittedChunks() {
+        // Given
+        userProperties.getBatch().setChunkSize(2);
+        List<User> users = Arrays.asList(
+                new User(null, "李四", "lisi@example.com", null, null),
+                new User(null, "王五", "wangwu@example.com", null, null),
+                new User(null, "赵六", "zhaoliu@example.com", null, null));
+        when(userMapper.findExistingEmails(any(String[].class)))
+                .thenReturn(List.of())
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+        when(userMapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<User> inserted = invocation.getArgument(0);
+            long id = 10;
+            for (User user : inserted) {
+                user.setId(id++);
+            }
+            return inserted.size();
+        });
 
+        // When
+        UserService.BatchAbortedException e = assertThrows(UserService.BatchAbortedException.class,
+                () -> userService.createUsers(users));
+
+        // Then
+        assertInstanceOf(DataAccessResourceFailureException.class, e.getCause());
+        assertEquals(3, e.getCompleted().size());
+        assertEquals(10L, e.getCompleted().get(0).getId());
+        assertEquals(11L, e.getCompleted().get(1).getId());
+        assertEquals("Not processed: connection lost", e.getCompleted().get(2).getError());
+        verify(userMapper, times(1)).insertBatch(anyList());
+    }
+
+    @Test
+    void updateUser_WhenUserExists_ShouldUpdateUser() {
+        // Given
         User updateData = new User();
         updateData.setName("张三更新");
         updateData.setEmail("zhangsan.updated@example.com");
 
-        when(userMapper.findById(1L)).thenReturn(existingUser);
-        when(userMapper.countByEmail("zhangsan.updated@example.com")).thenReturn(0);
-        when(userMapper.update(any(User.class))).thenReturn(1);
+        when(userMapper.updateReturning(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            return new User(user.getId(), user.getName(), user.getEmail(), testUser.getCreatedAt(), user.getUpdatedAt());
+        });
 
         // When
         User result = userService.updateUser(1L, updateData);
@@ -150,14 +555,14 @@ class UserServiceTest {
         assertEquals("张三更新", result.getName());
         assertEquals("zhangsan.updated@example.com", result.getEmail());
         assertNotNull(result.getUpdatedAt());
-        verify(userMapper, times(1)).findById(1L);
-        verify(userMapper, times(1)).update(any(User.class));
+        assertEquals(testUser.getCreatedAt(), result.getCreatedAt());
+        verify(userMapper, times(1)).updateReturning(any(User.class));
     }
 
     @Test
     void updateUser_WhenUserNotExists_ShouldThrowException() {
         // Given
-        when(userMapper.findById(999L)).thenReturn(null);
+        when(userMapper.updateReturning(any(User.class))).thenReturn(null);
 
         User updateData = new User();
         updateData.setName("不存在的用户");
@@ -168,26 +573,42 @@ class UserServiceTest {
         });
 
         assertEquals("User not found with id: 999", exception.getMessage());
-        verify(userMapper, times(1)).findById(999L);
-        verify(userMapper, never()).update(any(User.class));
+        verify(userMapper, times(1)).updateReturning(any(User.class));
+    }
+
+    @Test
+    void updateUser_WhenEmailTaken_ShouldThrowException() {
+        // Given
+        when(userMapper.updateReturning(any(User.class))).thenThrow(new DuplicateKeyException("duplicate"));
+
+        User updateData = new User();
+        updateData.setName("张三");
+        updateData.setEmail("existing@example.com");
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            userService.updateUser(1L, updateData);
+        });
+
+        assertEquals("Email already exists: existing@example.com", exception.getMessage());
     }
 
     @Test
     void deleteUser_WhenUserExists_ShouldDeleteUser() {
         // Given
-        when(userMapper.countById(1L)).thenReturn(1);
-        when(userMapper.deleteById(1L)).thenReturn(1);
+        when(userMapper.deleteByIdReturning(1L)).thenReturn(testUser);
 
         // When & Then
         assertDoesNotThrow(() -> userService.deleteUser(1L));
-        verify(userMapper, times(1)).countById(1L);
-        verify(userMapper, times(1)).deleteById(1L);
+        verify(userMapper, times(1)).deleteByIdReturning(1L);
+        verify(userCache, times(1)).invalidate(testUser);
+        verify(userNameIndex, times(1)).remove(1L);
     }
 
     @Test
     void deleteUser_WhenUserNotExists_ShouldThrowException() {
         // Given
-        when(userMapper.countById(999L)).thenReturn(0);
+        when(userMapper.deleteByIdReturning(999L)).thenReturn(null);
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -195,7 +616,6 @@ class UserServiceTest {
         });
 
         assertEquals("User not found with id: 999", exception.getMessage());
-        verify(userMapper, times(1)).countById(999L);
-        verify(userMapper, never()).deleteById(anyLong());
+        verify(userMapper, times(1)).deleteByIdReturning(999L);
     }
 }
\ No newline at end of file